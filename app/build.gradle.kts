@@ -31,6 +31,13 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+    testOptions {
+        unitTests {
+            // Robolectric provides android.* (JsonReader, SystemClock, Looper) to JVM tests
+            isIncludeAndroidResources = true
+        }
     }
 }
 
@@ -51,6 +58,7 @@ dependencies {
     implementation(libs.zxing.android.embedded)
     implementation(libs.play.services.wallet)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -18,4 +18,9 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Strip verbose/debug logging (and the strings built for it) from minified builds
+-assumenosideeffects class com.clubci.dbms_projectapp.utils.AppLog {
+    public static void v(...);
+    public static void d(...);
+}
@@ -177,7 +177,7 @@ public class CreateEventActivity extends AppCompatActivity {
                 showProgress(false);
                 showError(error);
             }
-        });
+        }).bindTo(this);
     }
 
     private void populateFields() {
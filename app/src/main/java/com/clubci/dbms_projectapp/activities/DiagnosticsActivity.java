@@ -0,0 +1,182 @@
+package com.clubci.dbms_projectapp.activities;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.MenuItem;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.core.content.FileProvider;
+import com.clubci.dbms_projectapp.R;
+import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.AppLog;
+import com.clubci.dbms_projectapp.utils.AttendanceOutbox;
+import com.clubci.dbms_projectapp.utils.FrameTimeMonitor;
+import com.clubci.dbms_projectapp.utils.Metrics;
+import com.clubci.dbms_projectapp.utils.WindowInsetsHelper;
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.materialswitch.MaterialSwitch;
+import com.google.android.material.snackbar.Snackbar;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hidden screen with the in-app metrics, for profiling on an event day.
+ * Dumps include the recent log lines kept by {@link AppLog}; they go to the
+ * app's external files directory (Android/data/<package>/files/diagnostics)
+ * and can be shared from the snackbar. Only the newest few are kept.
+ * Opened by long-pressing the username on the profile screen.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private static final String TAG = "DiagnosticsActivity";
+    private static final String DUMP_DIR = "diagnostics";
+    private static final String DUMP_PREFIX = "metrics-";
+    private static final int MAX_DUMPS = 10;
+    private static final ExecutorService dumpExecutor = Executors.newSingleThreadExecutor();
+
+    private TextView tvReport;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Enable edge-to-edge display for safe area handling
+        WindowInsetsHelper.enableEdgeToEdge(this);
+
+        setContentView(R.layout.activity_diagnostics);
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        tvReport = findViewById(R.id.tvReport);
+        MaterialButton btnRefresh = findViewById(R.id.btnRefresh);
+        MaterialButton btnDump = findViewById(R.id.btnDump);
+        MaterialButton btnReset = findViewById(R.id.btnReset);
+        MaterialSwitch switchFrameMonitor = findViewById(R.id.switchFrameMonitor);
+
+        btnRefresh.setOnClickListener(v -> showReport());
+        btnDump.setOnClickListener(v -> dumpReport());
+        btnReset.setOnClickListener(v -> {
+            Metrics.reset();
+            AppLog.clear();
+            showReport();
+        });
+
+        // Off by default in release builds; applies to screens resumed after this
+        switchFrameMonitor.setChecked(FrameTimeMonitor.isEnabled());
+        switchFrameMonitor.setOnCheckedChangeListener(
+                (buttonView, isChecked) -> FrameTimeMonitor.setEnabled(isChecked));
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showReport();
+    }
+
+    private void showReport() {
+        dumpExecutor.execute(() -> {
+            String report = Metrics.snapshot() + "\n" + getStatus();
+            mainHandler.post(() -> {
+                if (!isFinishing()) {
+                    tvReport.setText(report);
+                }
+            });
+        });
+    }
+
+    /**
+     * State that isn't a metric: connection pool, circuits, server features,
+     * outbox. Reads the outbox database; call on dumpExecutor.
+     */
+    private String getStatus() {
+        return "connections (~ estimated): " + ApiClient.getConnectionStats() + "\n"
+                + "coalesced GETs: " + ApiClient.getCoalescedRequestCount() + "\n"
+                + "queued requests: " + ApiClient.getQueuedRequestCount() + "\n"
+                + "server: " + ApiClient.getCapabilities().getSummary() + "\n"
+                + "circuits:\n" + ApiClient.getCircuitSummary() + "\n"
+                + "pending attendance: " + AttendanceOutbox.getInstance(this).count() + "\n";
+    }
+
+    private void dumpReport() {
+        String name = DUMP_PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".txt";
+        // Null when shared storage is unavailable; the share still works from internal storage
+        File root = getExternalFilesDir(null);
+        File directory = new File(root != null ? root : getFilesDir(), DUMP_DIR);
+        File file = new File(directory, name);
+        dumpExecutor.execute(() -> {
+            String message;
+            boolean saved = false;
+            try {
+                Metrics.dumpToFile(file, getStatus() + "\nRecent log:\n" + AppLog.dump());
+                pruneDumps(directory);
+                message = "Saved to " + file.getAbsolutePath();
+                saved = true;
+            } catch (IOException e) {
+                message = "Couldn't save metrics: " + e.getMessage();
+            }
+            String result = message;
+            boolean shareable = saved;
+            mainHandler.post(() -> {
+                if (isFinishing()) {
+                    return;
+                }
+                Snackbar snackbar = Snackbar.make(findViewById(android.R.id.content), result, Snackbar.LENGTH_LONG);
+                if (shareable) {
+                    snackbar.setAction("Share", v -> shareDump(file));
+                }
+                snackbar.show();
+            });
+        });
+    }
+
+    /**
+     * Keep the newest MAX_DUMPS; names sort by time
+     */
+    private static void pruneDumps(File directory) {
+        File[] dumps = directory.listFiles((dir, fileName) -> fileName.startsWith(DUMP_PREFIX));
+        if (dumps == null || dumps.length <= MAX_DUMPS) {
+            return;
+        }
+        Arrays.sort(dumps);
+        for (int i = 0; i < dumps.length - MAX_DUMPS; i++) {
+            if (!dumps[i].delete()) {
+                AppLog.w(TAG, "Couldn't delete " + dumps[i]);
+            }
+        }
+    }
+
+    private void shareDump(File file) {
+        Uri uri = FileProvider.getUriForFile(this, getPackageName() + ".diagnostics", file);
+        Intent send = new Intent(Intent.ACTION_SEND)
+                .setType("text/plain")
+                .putExtra(Intent.EXTRA_STREAM, uri)
+                .putExtra(Intent.EXTRA_SUBJECT, file.getName())
+                .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(send, "Share metrics"));
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
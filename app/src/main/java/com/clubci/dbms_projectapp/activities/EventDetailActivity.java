@@ -14,13 +14,17 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.models.Event;
+import com.clubci.dbms_projectapp.models.Registration;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.DataRepository;
 import com.clubci.dbms_projectapp.utils.DateUtils;
+import com.clubci.dbms_projectapp.utils.PassWallet;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.clubci.dbms_projectapp.utils.WindowInsetsHelper;
 import com.google.android.material.snackbar.Snackbar;
 import org.json.JSONException;
 import org.json.JSONObject;
+import java.util.List;
 
 public class EventDetailActivity extends AppCompatActivity {
 
@@ -32,6 +36,7 @@ public class EventDetailActivity extends AppCompatActivity {
     private String eventId;
     private Event currentEvent;
     private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
     private boolean isRegistered = false;
 
@@ -52,6 +57,7 @@ public class EventDetailActivity extends AppCompatActivity {
         }
 
         apiClient = new ApiClient(this);
+        repository = DataRepository.getInstance(this);
         prefsManager = SharedPreferencesManager.getInstance(this);
 
         eventId = getIntent().getStringExtra("EVENT_ID");
@@ -86,33 +92,37 @@ public class EventDetailActivity extends AppCompatActivity {
 
         btnRegister.setOnClickListener(v -> registerForEvent());
         btnViewQR.setOnClickListener(v -> viewQRCode());
-        btnMarkAttendance.setOnClickListener(v -> startActivity(new Intent(this, QrScannerActivity.class)));
+        btnMarkAttendance.setOnClickListener(v -> {
+            Intent intent = new Intent(this, QrScannerActivity.class);
+            intent.putExtra("EVENT_ID", eventId);
+            startActivity(intent);
+        });
         btnViewRegistrations.setOnClickListener(v -> {
             Intent intent = new Intent(this, RegistrationListActivity.class);
             intent.putExtra("EVENT_ID", eventId);
             if (currentEvent != null) {
                 intent.putExtra("EVENT_NAME", currentEvent.getName());
+                intent.putExtra("EVENT_STATUS", currentEvent.getStatus());
             }
             startActivity(intent);
         });
     }
 
     private void loadEventDetails() {
-        showProgress(true);
+        // Only block on the network when there is nothing cached to show
+        showProgress(currentEvent == null);
 
-        apiClient.getAuth("/events/" + eventId, new ApiClient.ApiCallback() {
+        repository.loadEvent(eventId, new DataRepository.Listener<Event>() {
             @Override
-            public void onSuccess(String response) {
+            public void onData(Event event, boolean fromCache) {
+                showProgress(false);
+                currentEvent = event;
+                displayEventDetails();
+            }
+
+            @Override
+            public void onUnchanged() {
                 showProgress(false);
-                try {
-                    JSONObject json = new JSONObject(response);
-                    currentEvent = Event.fromJson(json);
-                    displayEventDetails();
-                    checkRegistrationStatus();
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                    showError("Error parsing event details");
-                }
             }
 
             @Override
@@ -120,7 +130,8 @@ public class EventDetailActivity extends AppCompatActivity {
                 showProgress(false);
                 showError(error);
             }
-        });
+        }).bindTo(this);
+        checkRegistrationStatus();
     }
 
     private void displayEventDetails() {
@@ -158,30 +169,28 @@ public class EventDetailActivity extends AppCompatActivity {
 
     private void checkRegistrationStatus() {
         String username = prefsManager.getUsername();
-        apiClient.getAuth("/events/user/" + username + "/registrations", new ApiClient.ApiCallback() {
+        repository.loadUserRegistrations(username, new DataRepository.Listener<List<Registration>>() {
             @Override
-            public void onSuccess(String response) {
-                try {
-                    org.json.JSONArray jsonArray = new org.json.JSONArray(response);
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject reg = jsonArray.getJSONObject(i);
-                        if (eventId.equals(reg.getString("eventId"))) {
-                            isRegistered = true;
-                            btnRegister.setVisibility(View.GONE);
-                            btnViewQR.setVisibility(View.VISIBLE);
-                            break;
-                        }
+            public void onData(List<Registration> registrations, boolean fromCache) {
+                for (Registration registration : registrations) {
+                    if (eventId.equals(registration.getEventId())) {
+                        isRegistered = true;
+                        btnRegister.setVisibility(View.GONE);
+                        btnViewQR.setVisibility(View.VISIBLE);
+                        break;
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
                 }
             }
 
+            @Override
+            public void onUnchanged() {
+            }
+
             @Override
             public void onError(String error) {
                 // Ignore error, assume not registered
             }
-        });
+        }).bindTo(this);
     }
 
     private void registerForEvent() {
@@ -209,6 +218,16 @@ public class EventDetailActivity extends AppCompatActivity {
                     showProgress(false);
                     showSuccess("Registration successful!");
 
+                    // Render the pass now so it is ready at the gate without network
+                    String qrToken = null;
+                    try {
+                        qrToken = new JSONObject(response).optString("qrToken", null);
+                    } catch (JSONException ignored) {
+                        // Plain-text response; the JSON pass is used
+                    }
+                    PassWallet.getInstance(EventDetailActivity.this).addPass(prefsManager.getUsername(), eventId,
+                            currentEvent.getName(), qrToken);
+
                     // Check if event has fee
                     if (currentEvent.getFee() > 0) {
                         // Navigate to payment
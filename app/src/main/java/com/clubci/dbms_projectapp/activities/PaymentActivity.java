@@ -15,7 +15,9 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.clubci.dbms_projectapp.R;
+import com.clubci.dbms_projectapp.models.Payment;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.DataRepository;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.clubci.dbms_projectapp.utils.WindowInsetsHelper;
 
@@ -136,6 +138,13 @@ public class PaymentActivity extends AppCompatActivity {
 
     private void postPaymentToBackend(boolean success, @Nullable String txnId, @Nullable String approvalRef,
             @Nullable String status, @Nullable String rawResponse) {
+        // Keep a local record even if the backend call below fails
+        Payment payment = new Payment(eventId, username, amount);
+        payment.setPaymentMethod("GPay");
+        payment.setTransactionId(txnId);
+        payment.setStatus(success ? "COMPLETED" : "FAILED");
+        DataRepository.getInstance(this).recordPayment(payment);
+
         try {
             JSONObject body = new JSONObject();
             body.put("eventId", eventId);
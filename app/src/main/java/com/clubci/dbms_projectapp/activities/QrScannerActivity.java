@@ -2,10 +2,16 @@ package com.clubci.dbms_projectapp.activities;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
+import android.media.AudioManager;
+import android.media.ToneGenerator;
 import android.os.Bundle;
-import android.util.Log;
+import android.os.SystemClock;
+import android.util.Size;
+import android.view.HapticFeedbackConstants;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.ListView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
@@ -16,50 +22,106 @@ import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import com.clubci.dbms_projectapp.R;
+import com.clubci.dbms_projectapp.models.Event;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.AppLog;
+import com.clubci.dbms_projectapp.utils.AttendanceSync;
+import com.clubci.dbms_projectapp.utils.DataRepository;
 import com.clubci.dbms_projectapp.utils.QRCodeGenerator;
+import com.clubci.dbms_projectapp.utils.QrScanEngine;
+import com.clubci.dbms_projectapp.utils.RecentScanCache;
+import com.clubci.dbms_projectapp.utils.RosterIndex;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.clubci.dbms_projectapp.utils.WindowInsetsHelper;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.materialswitch.MaterialSwitch;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.zxing.BinaryBitmap;
-import com.google.zxing.MultiFormatReader;
-import com.google.zxing.NotFoundException;
-import com.google.zxing.PlanarYUVLuminanceSource;
-import com.google.zxing.Result;
-import com.google.zxing.common.HybridBinarizer;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import java.net.URLEncoder;
-import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class QrScannerActivity extends AppCompatActivity {
 
     private static final String TAG = "QrScannerActivity";
     private static final int CAMERA_PERMISSION_REQUEST_CODE = 100;
 
+    // Scan tuning: analysis resolution, reticle margin and decode subsampling
+    private static final Size ANALYSIS_RESOLUTION = new Size(1280, 720);
+    private static final float ROI_MARGIN = 1.15f;
+    private static final int DECODE_DOWNSCALE = 1;
+    private static final int LATENCY_LOG_INTERVAL = 300;
+
+    // Repeat scans of the same pass within the window are dropped
+    private static final int RECENT_SCANS_CAPACITY = 256;
+    private static final long DUPLICATE_WINDOW_MS = 10_000;
+
+    // Rapid scan: cap the failure list
+    private static final int MAX_FAILURES_SHOWN = 50;
+
+    private static final long ROSTER_REFRESH_MS = 30_000;
+
+    // Pass keys are sealed with a Keystore key; unsealing and sealing run here
+    private static final ExecutorService keyExecutor = Executors.newSingleThreadExecutor();
+
     private PreviewView previewView;
+    private View scanFrame;
     private TextView tvInstruction, tvStatus;
     private ProgressBar progressBar;
     private View rootView;
+    private MaterialSwitch switchRapidScan;
+    private TextView tvRapidStats;
+    private TextView tvPendingUploads;
+    private ListView lvScanFailures;
+    private ArrayAdapter<String> failuresAdapter;
+    private ToneGenerator toneGenerator;
 
-    private ApiClient apiClient;
     private SharedPreferencesManager prefsManager;
+    private RosterIndex rosterIndex;
+    private AttendanceSync attendanceSync;
+    private AttendanceSync.Listener syncListener;
+    // Signing keys for compact passes, verified offline
+    private Map<Integer, byte[]> qrKeys = new HashMap<>();
+    private boolean qrKeysRefreshed;
+    // Compact passes carry no event name; looked up once per event
+    private final Map<String, String> eventNames = new HashMap<>();
 
     private ExecutorService cameraExecutor;
     private ProcessCameraProvider cameraProvider;
-    private boolean isProcessing = false;
+    private QrScanEngine scanEngine;
+    // Set by whichever decode worker reports a code first
+    private final AtomicBoolean isProcessing = new AtomicBoolean(false);
+
+    // View geometry for mapping the reticle to image pixels, set on layout
+    private volatile int previewWidth, previewHeight, reticleSize;
+
+    // Rapid scan mode: scans go straight to the outbox (main thread only)
+    private boolean rapidMode = false;
+    private int markedCount, failedCount, pendingCount;
+
+    // Main thread only
+    private final RecentScanCache recentScans = new RecentScanCache(RECENT_SCANS_CAPACITY, DUPLICATE_WINDOW_MS);
+
+    // Scan confirmed through the dialog flow whose upload result is awaited
+    private String awaitingEventId, awaitingUsername, awaitingEventName;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -76,7 +138,6 @@ public class QrScannerActivity extends AppCompatActivity {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
 
-        apiClient = new ApiClient(this);
         prefsManager = SharedPreferencesManager.getInstance(this);
 
         // Check admin access
@@ -86,7 +147,24 @@ public class QrScannerActivity extends AppCompatActivity {
             return;
         }
 
+        // Registration checks run against this index instead of a roster download per scan
+        rosterIndex = new RosterIndex(DataRepository.getInstance(this), ROSTER_REFRESH_MS);
+        String preloadEventId = getIntent().getStringExtra("EVENT_ID");
+        if (preloadEventId != null) {
+            rosterIndex.preload(preloadEventId);
+        }
+        rosterIndex.start();
+
+        loadQrKeys();
+        refreshQrKeys();
+
         initViews();
+
+        // Scans are saved locally before upload, so a dropped connection doesn't lose them
+        attendanceSync = AttendanceSync.getInstance(this);
+        syncListener = createSyncListener();
+        attendanceSync.addListener(syncListener);
+        attendanceSync.drain();
         cameraExecutor = Executors.newSingleThreadExecutor();
 
         // Check camera permission
@@ -100,9 +178,36 @@ public class QrScannerActivity extends AppCompatActivity {
     private void initViews() {
         rootView = findViewById(android.R.id.content);
         previewView = findViewById(R.id.previewView);
+        scanFrame = findViewById(R.id.scanFrame);
         tvInstruction = findViewById(R.id.tvInstruction);
         tvStatus = findViewById(R.id.tvStatus);
         progressBar = findViewById(R.id.progressBar);
+        switchRapidScan = findViewById(R.id.switchRapidScan);
+        tvRapidStats = findViewById(R.id.tvRapidStats);
+        tvPendingUploads = findViewById(R.id.tvPendingUploads);
+        lvScanFailures = findViewById(R.id.lvScanFailures);
+
+        failuresAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        lvScanFailures.setAdapter(failuresAdapter);
+
+        switchRapidScan.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            rapidMode = isChecked;
+            tvRapidStats.setVisibility(isChecked ? View.VISIBLE : View.GONE);
+            updateRapidStats();
+        });
+
+        try {
+            toneGenerator = new ToneGenerator(AudioManager.STREAM_NOTIFICATION, 80);
+        } catch (RuntimeException e) {
+            // No audio feedback on this device
+            AppLog.w(TAG, "ToneGenerator unavailable", e);
+        }
+
+        previewView.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+            previewWidth = previewView.getWidth();
+            previewHeight = previewView.getHeight();
+            reticleSize = scanFrame.getWidth();
+        });
     }
 
     private boolean checkCameraPermission() {
@@ -129,6 +234,45 @@ public class QrScannerActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Keys stored by an earlier session, so passes verify offline too
+     */
+    private void loadQrKeys() {
+        keyExecutor.execute(() -> {
+            Map<Integer, byte[]> stored = prefsManager.getQrKeys();
+            runOnUiThread(() -> {
+                if (!qrKeysRefreshed) {
+                    qrKeys = stored;
+                }
+            });
+        });
+    }
+
+    /**
+     * Fetch the pass signing keys so passes can be verified without a network call
+     */
+    private void refreshQrKeys() {
+        new ApiClient(this).getAuth("/auth/qr-keys", new ApiClient.ApiCallback() {
+            @Override
+            public void onSuccess(String response) {
+                try {
+                    JSONArray keys = new JSONObject(response).getJSONArray("keys");
+                    qrKeys = SharedPreferencesManager.parseQrKeys(keys);
+                    qrKeysRefreshed = true;
+                    keyExecutor.execute(() -> prefsManager.saveQrKeys(keys));
+                } catch (JSONException e) {
+                    AppLog.w(TAG, "Unreadable pass keys", e);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                // Keep the stored keys; unverifiable passes go to the server
+                AppLog.w(TAG, "Couldn't refresh pass keys: " + error);
+            }
+        }).bindTo(this);
+    }
+
     private void startCamera() {
         ListenableFuture<ProcessCameraProvider> cameraProviderFuture = ProcessCameraProvider.getInstance(this);
 
@@ -137,7 +281,7 @@ public class QrScannerActivity extends AppCompatActivity {
                 cameraProvider = cameraProviderFuture.get();
                 bindCameraUseCases();
             } catch (ExecutionException | InterruptedException e) {
-                Log.e(TAG, "Error starting camera", e);
+                AppLog.e(TAG, "Error starting camera", e);
                 showError("Error starting camera");
             }
         }, ContextCompat.getMainExecutor(this));
@@ -151,8 +295,20 @@ public class QrScannerActivity extends AppCompatActivity {
         // Image analysis use case for QR scanning
         ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                .setResolutionSelector(new ResolutionSelector.Builder()
+                        .setResolutionStrategy(new ResolutionStrategy(ANALYSIS_RESOLUTION,
+                                ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                        .build())
                 .build();
 
+        if (scanEngine == null) {
+            scanEngine = new QrScanEngine(QrScanEngine.defaultWorkerCount(), qrData -> {
+                if (isProcessing.compareAndSet(false, true)) {
+                    runOnUiThread(() -> processQRCode(qrData));
+                }
+            });
+            scanEngine.setDownscale(DECODE_DOWNSCALE);
+        }
         imageAnalysis.setAnalyzer(cameraExecutor, new QRCodeAnalyzer());
 
         // Select back camera
@@ -167,59 +323,82 @@ public class QrScannerActivity extends AppCompatActivity {
                     this, cameraSelector, preview, imageAnalysis);
 
         } catch (Exception e) {
-            Log.e(TAG, "Use case binding failed", e);
+            AppLog.e(TAG, "Use case binding failed", e);
             showError("Failed to start camera");
         }
     }
 
     private class QRCodeAnalyzer implements ImageAnalysis.Analyzer {
-        private final MultiFormatReader reader = new MultiFormatReader();
+        private long analyzedFrames;
 
         @Override
         public void analyze(@NonNull ImageProxy image) {
-            if (isProcessing) {
+            if (isProcessing.get()) {
                 image.close();
                 return;
             }
 
             try {
-                ByteBuffer buffer = image.getPlanes()[0].getBuffer();
-                byte[] data = new byte[buffer.remaining()];
-                buffer.get(data);
-
-                PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(
-                        data,
-                        image.getWidth(),
-                        image.getHeight(),
-                        0, 0,
-                        image.getWidth(),
-                        image.getHeight(),
-                        false);
-
-                BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-                Result result = reader.decode(bitmap);
-
-                if (result != null) {
-                    isProcessing = true;
-                    String qrData = result.getText();
-                    runOnUiThread(() -> processQRCode(qrData));
-                }
-            } catch (NotFoundException e) {
-                // No QR code found in this frame
+                scanEngine.setRegionOfInterest(reticleFraction(image.getWidth(), image.getHeight(),
+                        image.getImageInfo().getRotationDegrees()));
+
+                // Copies the frame to an idle decode worker (or drops it) and returns
+                ImageProxy.PlaneProxy luma = image.getPlanes()[0];
+                scanEngine.submit(luma.getBuffer(), luma.getRowStride(), image.getWidth(), image.getHeight());
             } catch (Exception e) {
-                Log.e(TAG, "Error analyzing image", e);
+                AppLog.e(TAG, "Error analyzing image", e);
             } finally {
                 image.close();
             }
+
+            if (++analyzedFrames % LATENCY_LOG_INTERVAL == 0 && AppLog.isLoggable(AppLog.DEBUG)) {
+                AppLog.d(TAG, "Scan stats " + scanEngine.getSummary());
+            }
+        }
+
+        /**
+         * Side of the on-screen reticle as a fraction of the shorter image
+         * side. PreviewView scales with FILL_CENTER and the reticle is
+         * centred, so a centred square maps the same way for any rotation.
+         */
+        private float reticleFraction(int imageWidth, int imageHeight, int rotationDegrees) {
+            int viewWidth = previewWidth;
+            int viewHeight = previewHeight;
+            int reticle = reticleSize;
+            if (viewWidth == 0 || viewHeight == 0 || reticle == 0) {
+                return 1f;
+            }
+            boolean rotated = rotationDegrees % 180 != 0;
+            int uprightWidth = rotated ? imageHeight : imageWidth;
+            int uprightHeight = rotated ? imageWidth : imageHeight;
+            float scale = Math.max((float) viewWidth / uprightWidth, (float) viewHeight / uprightHeight);
+            float reticleInImage = reticle / scale * ROI_MARGIN;
+            return Math.min(1f, reticleInImage / Math.min(imageWidth, imageHeight));
         }
     }
 
     private void processQRCode(String qrData) {
-        Log.d(TAG, "QR Code detected: " + qrData);
+        AppLog.d(TAG, "QR Code detected: %s", qrData);
 
-        try {
-            JSONObject qrJson = QRCodeGenerator.parseQRDataJson(qrData);
+        // Compact passes are checked against the signing keys on the device
+        JSONObject qrJson = QRCodeGenerator.parseQRDataJson(qrData, qrKeys::get);
+        boolean signed = qrJson != null && qrJson.optBoolean("signed");
+        if (signed && !qrJson.optBoolean("verified")) {
+            AppLog.w(TAG, "Signing key not on this device; uploading the pass for the server to verify");
+        }
+        // Signed passes travel with the scan so the backend can check the signature itself
+        String passToken = signed ? qrData : null;
+        if (isRepeatScan(qrJson, qrData)) {
+            isProcessing.set(false);
+            return;
+        }
 
+        if (rapidMode) {
+            processRapidScan(qrJson, passToken);
+            return;
+        }
+
+        try {
             if (qrJson == null) {
                 showError("Invalid QR code format");
                 resetScanning();
@@ -228,7 +407,7 @@ public class QrScannerActivity extends AppCompatActivity {
 
             String username = qrJson.optString("username", "");
             String eventId = qrJson.optString("eventId", "");
-            String eventName = qrJson.optString("eventName", "Unknown Event");
+            String eventName = qrJson.optString("eventName", "");
             long timestamp = qrJson.optLong("timestamp", 0);
 
             if (username.isEmpty() || eventId.isEmpty()) {
@@ -237,82 +416,261 @@ public class QrScannerActivity extends AppCompatActivity {
                 return;
             }
 
+            // Warm the roster while the confirmation dialog is up
+            rosterIndex.preload(eventId);
+
             // Show success message that QR was scanned
             showSuccess("QR Code detected! Verifying...");
 
             // Show confirmation dialog
-            showConfirmationDialog(username, eventName, eventId, timestamp);
+            if (eventName.isEmpty()) {
+                confirmWithEventLookup(username, eventId, timestamp, passToken);
+            } else {
+                showConfirmationDialog(username, eventName, eventId, timestamp, passToken);
+            }
 
         } catch (Exception e) {
-            Log.e(TAG, "Error processing QR code", e);
+            AppLog.e(TAG, "Error processing QR code", e);
             showError("Error processing QR code");
             resetScanning();
         }
     }
 
-    private void showConfirmationDialog(String username, String eventName, String eventId, long timestamp) {
+    /**
+     * Drop a scan seen within the duplicate window (the same pass decoded
+     * over several frames, or at two doors) before it reaches a dialog or the
+     * network. In rapid mode passes the roster already has as attended are
+     * dropped too; the dialog flow asks whether to mark them again.
+     */
+    private boolean isRepeatScan(JSONObject qrJson, String qrData) {
+        long now = SystemClock.elapsedRealtime();
+        String username = qrJson != null ? qrJson.optString("username", "") : "";
+        String eventId = qrJson != null ? qrJson.optString("eventId", "") : "";
+        if (username.isEmpty() || eventId.isEmpty()) {
+            // Unusable payloads are keyed by their raw text
+            return recentScans.isDuplicate("", qrData, now);
+        }
+        if (recentScans.isDuplicate(eventId, username, now)) {
+            return true;
+        }
+        if (rapidMode && rosterIndex.peek(eventId, username) == RosterIndex.Status.ATTENDED) {
+            recentScans.countSuppressed();
+            signalScan(false);
+            tvStatus.setText("Already marked: " + username);
+            updateRapidStats();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rapid mode: confirm with a beep/vibration, queue the submission and
+     * go straight back to scanning
+     */
+    private void processRapidScan(JSONObject qrJson, String passToken) {
+        String username = qrJson != null ? qrJson.optString("username", "") : "";
+        String eventId = qrJson != null ? qrJson.optString("eventId", "") : "";
+
+        RosterIndex.Status status = username.isEmpty() || eventId.isEmpty()
+                ? null
+                : rosterIndex.peek(eventId, username);
+
+        if (username.isEmpty() || eventId.isEmpty()) {
+            signalScan(false);
+            addFailure("Invalid QR code");
+        } else if (status == RosterIndex.Status.NOT_REGISTERED) {
+            signalScan(false);
+            addFailure(username + ": not registered");
+        } else {
+            // Unindexed event: start loading its roster, the server validates this one
+            rosterIndex.preload(eventId);
+            signalScan(true);
+            attendanceSync.enqueue(eventId, username, passToken);
+            tvStatus.setText("Queued " + username);
+        }
+
+        updateRapidStats();
+        isProcessing.set(false);
+    }
+
+    private AttendanceSync.Listener createSyncListener() {
+        return new AttendanceSync.Listener() {
+            @Override
+            public void onPendingChanged(int pending) {
+                pendingCount = pending;
+                tvPendingUploads.setText(pending + (pending == 1 ? " scan" : " scans") + " waiting to upload");
+                tvPendingUploads.setVisibility(pending > 0 ? View.VISIBLE : View.GONE);
+                updateRapidStats();
+            }
+
+            @Override
+            public void onUploaded(String eventId, String username) {
+                markedCount++;
+                rosterIndex.markAttended(eventId, username);
+                updateRapidStats();
+                if (isAwaited(eventId, username)) {
+                    String eventName = awaitingEventName;
+                    clearAwaited();
+                    showProgress(false);
+                    AppLog.d(TAG, "Attendance marked successfully for %s", username);
+                    showSuccess("✓ Attendance marked for " + username);
+                    showSuccessDialog(username, eventName);
+                }
+            }
+
+            @Override
+            public void onRejected(String eventId, String username, String error) {
+                AppLog.e(TAG, "Failed to mark attendance for " + username + " - Error: " + error);
+                if (isAwaited(eventId, username)) {
+                    clearAwaited();
+                    showProgress(false);
+                    showError(error);
+                    cancelScan(eventId, username);
+                } else {
+                    signalScan(false);
+                    addFailure(username + ": " + error);
+                    updateRapidStats();
+                }
+            }
+
+            @Override
+            public void onDeferred(long retryInMs) {
+                if (awaitingUsername != null) {
+                    String username = awaitingUsername;
+                    clearAwaited();
+                    showProgress(false);
+                    showSavedOfflineDialog(username);
+                }
+            }
+        };
+    }
+
+    private boolean isAwaited(String eventId, String username) {
+        return awaitingUsername != null && awaitingEventId.equals(eventId)
+                && awaitingUsername.equalsIgnoreCase(username);
+    }
+
+    private void clearAwaited() {
+        awaitingEventId = null;
+        awaitingUsername = null;
+        awaitingEventName = null;
+    }
+
+    private void signalScan(boolean accepted) {
+        previewView.performHapticFeedback(accepted
+                ? HapticFeedbackConstants.VIRTUAL_KEY
+                : HapticFeedbackConstants.LONG_PRESS);
+        if (toneGenerator != null) {
+            toneGenerator.startTone(accepted ? ToneGenerator.TONE_PROP_ACK : ToneGenerator.TONE_PROP_NACK, 150);
+        }
+    }
+
+    private void addFailure(String message) {
+        failedCount++;
+        String time = new SimpleDateFormat("HH:mm:ss", Locale.getDefault()).format(new Date());
+        failuresAdapter.insert(time + "  " + message, 0);
+        while (failuresAdapter.getCount() > MAX_FAILURES_SHOWN) {
+            failuresAdapter.remove(failuresAdapter.getItem(failuresAdapter.getCount() - 1));
+        }
+        lvScanFailures.setVisibility(View.VISIBLE);
+    }
+
+    private void updateRapidStats() {
+        tvRapidStats.setText("Marked " + markedCount
+                + " · Pending " + pendingCount
+                + " · Failed " + failedCount
+                + " · Skipped " + recentScans.getSuppressedCount());
+    }
+
+    /**
+     * Show the confirmation dialog once the event's name is known: from
+     * an earlier scan, the stored event, or the server
+     */
+    private void confirmWithEventLookup(String username, String eventId, long timestamp, String passToken) {
+        if (eventNames.containsKey(eventId)) {
+            showConfirmationDialog(username, eventNames.get(eventId), eventId, timestamp, passToken);
+            return;
+        }
+        final boolean[] shown = new boolean[1];
+        DataRepository.getInstance(this).loadEvent(eventId, new DataRepository.Listener<Event>() {
+            @Override
+            public void onData(Event event, boolean fromCache) {
+                if (event.getName() != null && !event.getName().isEmpty()) {
+                    eventNames.put(eventId, event.getName());
+                }
+                show();
+            }
+
+            @Override
+            public void onUnchanged() {
+            }
+
+            @Override
+            public void onError(String error) {
+                AppLog.w(TAG, "Couldn't load event " + eventId + ": " + error);
+                show();
+            }
+
+            private void show() {
+                if (shown[0] || isFinishing()) {
+                    return;
+                }
+                shown[0] = true;
+                String eventName = eventNames.containsKey(eventId) ? eventNames.get(eventId) : "Unknown Event";
+                showConfirmationDialog(username, eventName, eventId, timestamp, passToken);
+            }
+        }).bindTo(this);
+    }
+
+    private void showConfirmationDialog(String username, String eventName, String eventId, long timestamp,
+            String passToken) {
         new MaterialAlertDialogBuilder(this)
                 .setTitle("Mark Attendance")
                 .setMessage("User: " + username + "\nEvent: " + eventName + "\n\nMark attendance?")
                 .setPositiveButton("Confirm", (dialog, which) -> {
-                    markAttendance(username, eventId, eventName);
+                    markAttendance(username, eventId, eventName, passToken);
                 })
                 .setNegativeButton("Cancel", (dialog, which) -> {
-                    resetScanning();
+                    cancelScan(eventId, username);
                 })
-                .setOnCancelListener(dialog -> resetScanning())
+                .setOnCancelListener(dialog -> cancelScan(eventId, username))
                 .show();
     }
 
-    private void markAttendance(String username, String eventId, String eventName) {
+    private void markAttendance(String username, String eventId, String eventName, String passToken) {
         showProgress(true);
         tvStatus.setText("Validating registration...");
 
-        // First, check if user is registered for the event
-        apiClient.getAuth("/events/" + eventId + "/registrations", new ApiClient.ApiCallback() {
+        // Answered from the in-memory roster; only the first scan of an event waits for it to load
+        rosterIndex.lookup(eventId, username, new RosterIndex.LookupCallback() {
             @Override
-            public void onSuccess(String response) {
-                try {
-                    Log.d(TAG, "Registrations response: " + response);
-                    JSONArray registrations = new JSONArray(response);
-                    boolean isRegistered = false;
-
-                    // Check if username exists in registrations
-                    for (int i = 0; i < registrations.length(); i++) {
-                        JSONObject registration = registrations.getJSONObject(i);
-                        String registeredUser = registration.optString("username", "");
-
-                        if (registeredUser.equalsIgnoreCase(username)) {
-                            isRegistered = true;
-                            break;
-                        }
-                    }
-
-                    if (isRegistered) {
-                        // User is registered, proceed to mark attendance
-                        proceedWithAttendance(username, eventId, eventName);
-                    } else {
-                        // User is not registered - allow admin override
-                        showProgress(false);
-                        tvStatus.setText("User not registered");
-                        new MaterialAlertDialogBuilder(QrScannerActivity.this)
-                                .setTitle("User not registered")
-                                .setMessage("User \"" + username
-                                        + "\" is not registered for this event.\n\nMark attendance anyway?")
-                                .setPositiveButton("Proceed", (d, w) -> {
-                                    showProgress(true);
-                                    proceedWithAttendance(username, eventId, eventName);
-                                })
-                                .setNegativeButton("Cancel", (d, w) -> resetScanning())
-                                .show();
-                    }
-
-                } catch (Exception e) {
-                    Log.e(TAG, "Error parsing registrations", e);
-                    showProgress(false);
-                    showError("Error validating registration");
-                    resetScanning();
+            public void onResult(RosterIndex.Status status) {
+                if (status == RosterIndex.Status.REGISTERED) {
+                    // User is registered, proceed to mark attendance
+                    proceedWithAttendance(username, eventId, eventName, passToken);
+                    return;
+                }
+
+                showProgress(false);
+                String message;
+                if (status == RosterIndex.Status.ATTENDED) {
+                    tvStatus.setText("Already marked");
+                    message = "Attendance is already marked for \"" + username + "\".\n\nMark it again?";
+                } else {
+                    // User is not registered - allow admin override
+                    tvStatus.setText("User not registered");
+                    message = "User \"" + username
+                            + "\" is not registered for this event.\n\nMark attendance anyway?";
                 }
+                new MaterialAlertDialogBuilder(QrScannerActivity.this)
+                        .setTitle(status == RosterIndex.Status.ATTENDED ? "Already marked" : "User not registered")
+                        .setMessage(message)
+                        .setPositiveButton("Proceed", (d, w) -> {
+                            showProgress(true);
+                            proceedWithAttendance(username, eventId, eventName, passToken);
+                        })
+                        .setNegativeButton("Cancel", (d, w) -> cancelScan(eventId, username))
+                        .show();
             }
 
             @Override
@@ -320,93 +678,41 @@ public class QrScannerActivity extends AppCompatActivity {
                 // Couldn't validate registration - allow admin to proceed anyway
                 showProgress(false);
                 tvStatus.setText("Validation failed");
-                Log.e(TAG, "Validation error: " + error);
+                AppLog.e(TAG, "Validation error: " + error);
                 new MaterialAlertDialogBuilder(QrScannerActivity.this)
                         .setTitle("Validation failed")
                         .setMessage(
                                 "Couldn't validate registration (" + error + ").\n\nProceed to mark attendance anyway?")
                         .setPositiveButton("Proceed", (d, w) -> {
                             showProgress(true);
-                            proceedWithAttendance(username, eventId, eventName);
+                            proceedWithAttendance(username, eventId, eventName, passToken);
                         })
-                        .setNegativeButton("Cancel", (d, w) -> resetScanning())
+                        .setNegativeButton("Cancel", (d, w) -> cancelScan(eventId, username))
                         .show();
             }
         });
     }
 
-    private void proceedWithAttendance(String username, String eventId, String eventName) {
+    private void proceedWithAttendance(String username, String eventId, String eventName, String passToken) {
         tvStatus.setText("Marking attendance...");
 
-        try {
-            if (eventId == null || eventId.trim().isEmpty()) {
-                showProgress(false);
-                showError("Event ID missing in QR. Cannot mark attendance.");
-                resetScanning();
-                return;
-            }
-
-            JSONObject attendanceData = new JSONObject();
-            attendanceData.put("username", username);
-            attendanceData.put("eventId", eventId);
-            attendanceData.put("timestamp", System.currentTimeMillis());
-
-            // Log the request
-            Log.d(TAG, "Marking attendance - Endpoint: /events/" + eventId + "/attendance");
-            Log.d(TAG, "Attendance data: " + attendanceData.toString());
-
-            // Prefer spec endpoint: /events/{eventId}/attendance/{username}
-            String safeUsername;
-            try {
-                safeUsername = URLEncoder.encode(username, "UTF-8");
-            } catch (Exception e) {
-                safeUsername = username; // fallback without encoding
-            }
-
-            final String endpointV1 = "/events/" + eventId + "/attendance/" + safeUsername;
-            final String endpointV0 = "/events/" + eventId + "/attendance"; // legacy
-
-            // Try V1 first
-            showInfo("Sending: POST " + endpointV1);
-            apiClient.postAuth(endpointV1, attendanceData, new ApiClient.ApiCallback() {
-                @Override
-                public void onSuccess(String response) {
-                    showProgress(false);
-                    Log.d(TAG, "Attendance marked successfully - Response: " + response);
-                    showSuccess("✓ Attendance marked for " + username);
-                    showSuccessDialog(username, eventName);
-                }
-
-                @Override
-                public void onError(String error) {
-                    Log.e(TAG, "V1 attendance endpoint failed: " + error + "); falling back to legacy endpoint");
-                    // Fallback to legacy endpoint
-                    showInfo("Retrying: POST " + endpointV0);
-                    apiClient.postAuth(endpointV0, attendanceData, new ApiClient.ApiCallback() {
-                        @Override
-                        public void onSuccess(String response) {
-                            showProgress(false);
-                            Log.d(TAG, "Attendance marked via legacy endpoint - Response: " + response);
-                            showSuccess("✓ Attendance marked for " + username);
-                            showSuccessDialog(username, eventName);
-                        }
-
-                        @Override
-                        public void onError(String error2) {
-                            showProgress(false);
-                            Log.e(TAG, "Failed to mark attendance (legacy) - Error: " + error2);
-                            showError(error2);
-                            resetScanning();
-                        }
-                    });
-                }
-            });
-
-        } catch (JSONException e) {
-            Log.e(TAG, "Error creating attendance data", e);
+        if (eventId == null || eventId.trim().isEmpty()) {
             showProgress(false);
-            showError("Error creating request");
+            showError("Event ID missing in QR. Cannot mark attendance.");
             resetScanning();
+            return;
+        }
+
+        // Written to the outbox first; the result arrives through the sync listener
+        awaitingEventId = eventId;
+        awaitingUsername = username;
+        awaitingEventName = eventName;
+        attendanceSync.enqueue(eventId, username, passToken);
+        if (attendanceSync.isWaitingToRetry()) {
+            // Already known to be offline; don't wait out the backoff
+            clearAwaited();
+            showProgress(false);
+            showSavedOfflineDialog(username);
         }
     }
 
@@ -420,8 +726,28 @@ public class QrScannerActivity extends AppCompatActivity {
                 .show();
     }
 
+    private void showSavedOfflineDialog(String username) {
+        new MaterialAlertDialogBuilder(this)
+                .setTitle("Saved offline")
+                .setMessage("Couldn't reach the server. Attendance for " + username
+                        + " is saved and will upload when the connection is back.")
+                .setPositiveButton("Scan Next", (dialog, which) -> resetScanning())
+                .setNegativeButton("Close", (dialog, which) -> finish())
+                .setCancelable(false)
+                .show();
+    }
+
+    /**
+     * Back to scanning after a scan was cancelled or failed; the same pass
+     * may be scanned again at once instead of waiting out the duplicate window
+     */
+    private void cancelScan(String eventId, String username) {
+        recentScans.forget(eventId, username);
+        resetScanning();
+    }
+
     private void resetScanning() {
-        isProcessing = false;
+        isProcessing.set(false);
         runOnUiThread(() -> {
             tvStatus.setText("Scanning...");
             tvInstruction.setText("Position QR code within the frame");
@@ -451,17 +777,6 @@ public class QrScannerActivity extends AppCompatActivity {
         });
     }
 
-    private void showInfo(String message) {
-        runOnUiThread(() -> {
-            if (rootView != null) {
-                Snackbar.make(rootView, message, Snackbar.LENGTH_SHORT)
-                        .setBackgroundTint(getColor(R.color.accent))
-                        .setTextColor(getColor(android.R.color.white))
-                        .show();
-            }
-        });
-    }
-
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -474,6 +789,24 @@ public class QrScannerActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (scanEngine != null) {
+            AppLog.d(TAG, "Scan stats " + scanEngine.getSummary());
+            scanEngine.shutdown();
+        }
+        if (rosterIndex != null) {
+            rosterIndex.stop();
+        }
+        if (toneGenerator != null) {
+            toneGenerator.release();
+        }
+        if (attendanceSync != null) {
+            // Uploading carries on without this screen
+            attendanceSync.removeListener(syncListener);
+            AppLog.d(TAG, "Server capabilities " + ApiClient.getCapabilities().getSummary());
+        }
+        if (recentScans.getSuppressedCount() > 0) {
+            AppLog.d(TAG, "Duplicate scans suppressed: " + recentScans.getSuppressedCount());
+        }
         if (cameraExecutor != null) {
             cameraExecutor.shutdown();
         }
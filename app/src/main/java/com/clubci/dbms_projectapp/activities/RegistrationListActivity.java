@@ -1,6 +1,8 @@
 package com.clubci.dbms_projectapp.activities;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.TextView;
@@ -14,26 +16,34 @@ import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.adapters.AdminRegistrationAdapter;
 import com.clubci.dbms_projectapp.models.Registration;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.AppLog;
+import com.clubci.dbms_projectapp.utils.DataRepository;
+import com.clubci.dbms_projectapp.utils.FrameTimeMonitor;
+import com.clubci.dbms_projectapp.utils.RequestHandle;
+import com.clubci.dbms_projectapp.utils.ServerCapabilities;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.clubci.dbms_projectapp.utils.WindowInsetsHelper;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.snackbar.Snackbar;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.List;
 
 public class RegistrationListActivity extends AppCompatActivity {
 
+    private static final String TAG = "RegistrationListActivity";
+    // While the event is running, attendance changes are picked up by polling
+    private static final long LIVE_POLL_INTERVAL_MS = 5000;
+
     private TextView tvEventName, tvRegistrationCount, tvAttendedCount, tvEmpty;
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
     private ChipGroup chipGroupFilter;
 
-    private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
+    private final FrameTimeMonitor frameMonitor = new FrameTimeMonitor("RegistrationListActivity");
     private AdminRegistrationAdapter adapter;
 
     private String eventId;
@@ -42,6 +52,23 @@ public class RegistrationListActivity extends AppCompatActivity {
     private List<Registration> filteredRegistrations = new ArrayList<>();
     private String currentFilter = "ALL";
 
+    private boolean liveEvent;
+    private RequestHandle syncRequest;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable pollTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!canPoll()) {
+                return;
+            }
+            if (syncRequest == null) {
+                syncRegistrations(true);
+            }
+            handler.postDelayed(this, LIVE_POLL_INTERVAL_MS);
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -57,7 +84,7 @@ public class RegistrationListActivity extends AppCompatActivity {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
 
-        apiClient = new ApiClient(this);
+        repository = DataRepository.getInstance(this);
         prefsManager = SharedPreferencesManager.getInstance(this);
 
         // Check admin access
@@ -70,6 +97,7 @@ public class RegistrationListActivity extends AppCompatActivity {
         // Get event ID from intent
         eventId = getIntent().getStringExtra("EVENT_ID");
         eventName = getIntent().getStringExtra("EVENT_NAME");
+        liveEvent = "ONGOING".equalsIgnoreCase(getIntent().getStringExtra("EVENT_STATUS"));
 
         if (eventId == null || eventId.isEmpty()) {
             showError("Invalid event");
@@ -136,38 +164,55 @@ public class RegistrationListActivity extends AppCompatActivity {
     private void loadRegistrations() {
         swipeRefreshLayout.setRefreshing(true);
         tvEmpty.setVisibility(View.GONE);
+        syncRegistrations(false);
+    }
 
-        apiClient.getAuth("/events/" + eventId + "/registrations", new ApiClient.ApiCallback() {
-            @Override
-            public void onSuccess(String response) {
-                swipeRefreshLayout.setRefreshing(false);
-                try {
-                    JSONArray jsonArray = new JSONArray(response);
-                    allRegistrations.clear();
-
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject json = jsonArray.getJSONObject(i);
-                        Registration registration = Registration.fromJson(json);
-                        allRegistrations.add(registration);
+    /**
+     * Delta sync of the registrations; a poll only hears about changes and
+     * fails quietly, the next poll tries again
+     */
+    private void syncRegistrations(boolean poll) {
+        if (syncRequest != null) {
+            syncRequest.cancel();
+        }
+        ApiClient.Priority priority = poll ? ApiClient.Priority.LOW : ApiClient.Priority.NORMAL;
+        syncRequest = repository.syncEventRegistrations(eventId, poll, priority,
+                new DataRepository.Listener<List<Registration>>() {
+                    @Override
+                    public void onData(List<Registration> registrations, boolean fromCache) {
+                        if (!fromCache) {
+                            syncRequest = null;
+                        }
+                        if (!poll) {
+                            swipeRefreshLayout.setRefreshing(fromCache);
+                        }
+                        allRegistrations.clear();
+                        allRegistrations.addAll(registrations);
+
+                        updateStats();
+                        filterRegistrations();
                     }
 
-                    updateStats();
-                    filterRegistrations();
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error parsing registrations");
-                    updateEmptyState();
-                }
-            }
+                    @Override
+                    public void onUnchanged() {
+                        syncRequest = null;
+                        if (!poll) {
+                            swipeRefreshLayout.setRefreshing(false);
+                        }
+                    }
 
-            @Override
-            public void onError(String error) {
-                swipeRefreshLayout.setRefreshing(false);
-                showError(error);
-                updateEmptyState();
-            }
-        });
+                    @Override
+                    public void onError(String error) {
+                        syncRequest = null;
+                        if (poll) {
+                            AppLog.w(TAG, "Registration poll failed: " + error);
+                            return;
+                        }
+                        swipeRefreshLayout.setRefreshing(false);
+                        showError(error);
+                        updateEmptyState();
+                    }
+                }).bindTo(this);
     }
 
     private void updateStats() {
@@ -250,6 +295,29 @@ public class RegistrationListActivity extends AppCompatActivity {
         Snackbar.make(findViewById(android.R.id.content), message, Snackbar.LENGTH_SHORT).show();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        frameMonitor.start();
+        if (canPoll()) {
+            handler.postDelayed(pollTask, LIVE_POLL_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Polling only pays off with delta sync; full lists every few seconds would not
+     */
+    private boolean canPoll() {
+        return liveEvent && ApiClient.getCapabilities().getDeltaSync() != ServerCapabilities.Support.UNSUPPORTED;
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        frameMonitor.stop();
+        handler.removeCallbacks(pollTask);
+    }
+
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -9,6 +9,8 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.models.Event;
@@ -16,11 +18,16 @@ import com.clubci.dbms_projectapp.utils.DateUtils;
 import com.google.android.material.card.MaterialCardView;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends ListAdapter<Event, EventAdapter.EventViewHolder> {
+
+    private static final String PAYLOAD_PARTICIPANTS = "participants";
+    private static final String PAYLOAD_STATUS = "status";
 
-    private List<Event> events = new ArrayList<>();
     private OnEventClickListener listener;
 
     public interface OnEventClickListener {
@@ -28,12 +35,16 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
     }
 
     public EventAdapter(OnEventClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
 
+    /**
+     * Submit a new list; the diff against the current list is computed on a
+     * background thread and only changed rows are rebound.
+     */
     public void setEvents(List<Event> events) {
-        this.events = events;
-        notifyDataSetChanged();
+        submitList(events != null ? new ArrayList<>(events) : null);
     }
 
     @NonNull
@@ -46,18 +57,79 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
 
     @Override
     public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        Event event = events.get(position);
+        Event event = getItem(position);
         holder.bind(event, listener);
     }
 
     @Override
-    public int getItemCount() {
-        return events.size();
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        // Partial bind: only counters / status changed
+        Event event = getItem(position);
+        holder.currentEvent = event;
+        for (Object payload : payloads) {
+            if (!(payload instanceof Set)) {
+                continue;
+            }
+            Set<?> changes = (Set<?>) payload;
+            if (changes.contains(PAYLOAD_PARTICIPANTS)) {
+                holder.bindProgress(event);
+            }
+            if (changes.contains(PAYLOAD_STATUS)) {
+                holder.bindStatus(event);
+            }
+        }
     }
 
+    private static final DiffUtil.ItemCallback<Event> DIFF_CALLBACK = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getEventId(), newItem.getEventId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return sameStaticContent(oldItem, newItem)
+                    && oldItem.getCurrentParticipants() == newItem.getCurrentParticipants()
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Event oldItem, @NonNull Event newItem) {
+            if (!sameStaticContent(oldItem, newItem)) {
+                return null; // full rebind
+            }
+            Set<String> changes = new HashSet<>();
+            if (oldItem.getCurrentParticipants() != newItem.getCurrentParticipants()) {
+                changes.add(PAYLOAD_PARTICIPANTS);
+            }
+            if (!Objects.equals(oldItem.getStatus(), newItem.getStatus())) {
+                changes.add(PAYLOAD_STATUS);
+            }
+            return changes;
+        }
+
+        /**
+         * Everything bound to the card except the counters and status
+         */
+        private boolean sameStaticContent(Event oldItem, Event newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getDateTime(), newItem.getDateTime())
+                    && Objects.equals(oldItem.getVenue(), newItem.getVenue())
+                    && oldItem.getFee() == newItem.getFee()
+                    && oldItem.getMaxParticipants() == newItem.getMaxParticipants()
+                    && Objects.equals(oldItem.getType(), newItem.getType());
+        }
+    };
+
     static class EventViewHolder extends RecyclerView.ViewHolder {
         TextView tvName, tvDate, tvVenue, tvFee, tvProgress, tvType, tvStatus;
         ProgressBar progressBar;
+        Event currentEvent;
 
         EventViewHolder(View itemView) {
             super(itemView);
@@ -72,10 +144,12 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
         }
 
         void bind(Event event, OnEventClickListener listener) {
+            currentEvent = event;
+
             // Set click listener on the card
             itemView.setOnClickListener(v -> {
                 if (listener != null) {
-                    listener.onEventClick(event);
+                    listener.onEventClick(currentEvent);
                 }
             });
 
@@ -100,10 +174,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                 tvFee.setTextColor(itemView.getContext().getColor(R.color.dark_secondary));
             }
 
-            // Progress
-            int progress = event.getProgressPercentage();
-            tvProgress.setText(event.getCurrentParticipants() + "/" + event.getMaxParticipants());
-            progressBar.setProgress(progress);
+            bindProgress(event);
 
             // Type
             String type = event.getType();
@@ -114,7 +185,16 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
                 tvType.setVisibility(View.GONE);
             }
 
-            // Status
+            bindStatus(event);
+        }
+
+        void bindProgress(Event event) {
+            int progress = event.getProgressPercentage();
+            tvProgress.setText(event.getCurrentParticipants() + "/" + event.getMaxParticipants());
+            progressBar.setProgress(progress);
+        }
+
+        void bindStatus(Event event) {
             String status = event.getStatus();
             if (status != null && !status.isEmpty()) {
                 tvStatus.setText(status);
@@ -135,12 +215,6 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             } else {
                 tvStatus.setVisibility(View.GONE);
             }
-
-            itemView.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onEventClick(event);
-                }
-            });
         }
     }
 }
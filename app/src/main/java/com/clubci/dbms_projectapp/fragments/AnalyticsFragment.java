@@ -11,11 +11,12 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.clubci.dbms_projectapp.R;
-import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.models.Event;
+import com.clubci.dbms_projectapp.utils.DataRepository;
+import com.clubci.dbms_projectapp.utils.FrameTimeMonitor;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.google.android.material.snackbar.Snackbar;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.List;
 
 public class AnalyticsFragment extends Fragment {
 
@@ -23,8 +24,9 @@ public class AnalyticsFragment extends Fragment {
     private SwipeRefreshLayout swipeRefreshLayout;
     private ProgressBar progressBar;
 
-    private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
+    private final FrameTimeMonitor frameMonitor = new FrameTimeMonitor("AnalyticsFragment");
 
     @Nullable
     @Override
@@ -38,7 +40,7 @@ public class AnalyticsFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        apiClient = new ApiClient(requireContext());
+        repository = DataRepository.getInstance(requireContext());
         prefsManager = SharedPreferencesManager.getInstance(requireContext());
 
         if (!prefsManager.isAdmin()) {
@@ -61,17 +63,16 @@ public class AnalyticsFragment extends Fragment {
     private void loadAnalytics() {
         showProgress(true);
 
-        // Load all events to calculate analytics
-        apiClient.getAuth("/events/all", new ApiClient.ApiCallback() {
+        // Analytics cover the whole catalogue; only events changed since the last visit are downloaded
+        repository.syncEvents(new DataRepository.Listener<List<Event>>() {
             @Override
-            public void onSuccess(String response) {
-                try {
-                    JSONArray events = new JSONArray(response);
-                    calculateAnalytics(events);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error parsing analytics data");
-                }
+            public void onData(List<Event> events, boolean fromCache) {
+                calculateAnalytics(events);
+                showProgress(fromCache);
+            }
+
+            @Override
+            public void onUnchanged() {
                 showProgress(false);
             }
 
@@ -80,45 +81,35 @@ public class AnalyticsFragment extends Fragment {
                 showProgress(false);
                 showError(error);
             }
-        });
+        }).bindTo(getViewLifecycleOwner());
     }
 
-    private void calculateAnalytics(JSONArray events) {
-        try {
-            int totalEvents = events.length();
-            int totalRegistrations = 0;
-            double totalRevenue = 0.0;
-            int totalAttended = 0;
-            int totalParticipants = 0;
-
-            for (int i = 0; i < events.length(); i++) {
-                JSONObject event = events.getJSONObject(i);
-
-                int currentParticipants = event.optInt("currentParticipants", 0);
-                int attendedCount = event.optInt("attendedCount", 0);
-                double fee = event.optDouble("fee", 0.0);
-
-                totalRegistrations += currentParticipants;
-                totalRevenue += (currentParticipants * fee);
-                totalAttended += attendedCount;
-                totalParticipants += currentParticipants;
-            }
+    private void calculateAnalytics(List<Event> events) {
+        int totalEvents = events.size();
+        int totalRegistrations = 0;
+        double totalRevenue = 0.0;
+        int totalAttended = 0;
+        int totalParticipants = 0;
 
-            // Update UI
-            tvTotalEvents.setText(String.valueOf(totalEvents));
-            tvTotalRegistrations.setText(String.valueOf(totalRegistrations));
-            tvTotalRevenue.setText("₹" + String.format("%.2f", totalRevenue));
+        for (Event event : events) {
+            int currentParticipants = event.getCurrentParticipants();
 
-            if (totalParticipants > 0) {
-                double attendanceRate = (totalAttended * 100.0) / totalParticipants;
-                tvAttendanceRate.setText(String.format("%.1f%%", attendanceRate));
-            } else {
-                tvAttendanceRate.setText("0%");
-            }
+            totalRegistrations += currentParticipants;
+            totalRevenue += (currentParticipants * event.getFee());
+            totalAttended += event.getAttendedCount();
+            totalParticipants += currentParticipants;
+        }
+
+        // Update UI
+        tvTotalEvents.setText(String.valueOf(totalEvents));
+        tvTotalRegistrations.setText(String.valueOf(totalRegistrations));
+        tvTotalRevenue.setText("₹" + String.format("%.2f", totalRevenue));
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error calculating analytics");
+        if (totalParticipants > 0) {
+            double attendanceRate = (totalAttended * 100.0) / totalParticipants;
+            tvAttendanceRate.setText(String.format("%.1f%%", attendanceRate));
+        } else {
+            tvAttendanceRate.setText("0%");
         }
     }
 
@@ -136,6 +127,13 @@ public class AnalyticsFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
+        frameMonitor.start();
         loadAnalytics();
     }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        frameMonitor.stop();
+    }
 }
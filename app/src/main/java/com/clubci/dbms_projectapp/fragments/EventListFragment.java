@@ -10,6 +10,7 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -17,25 +18,39 @@ import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.activities.CreateEventActivity;
 import com.clubci.dbms_projectapp.activities.EventDetailActivity;
 import com.clubci.dbms_projectapp.adapters.EventAdapter;
+import com.clubci.dbms_projectapp.adapters.LoadingFooterAdapter;
 import com.clubci.dbms_projectapp.models.Event;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.AppLog;
+import com.clubci.dbms_projectapp.utils.DataRepository;
+import com.clubci.dbms_projectapp.utils.EventPager;
+import com.clubci.dbms_projectapp.utils.FrameTimeMonitor;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class EventListFragment extends Fragment {
 
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefresh;
     private FloatingActionButton fab;
     private LinearLayout tvEmpty;
     private EventAdapter adapter;
+    private LoadingFooterAdapter footerAdapter;
+    private LinearLayoutManager layoutManager;
+    private EventPager pager;
     private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
+    private List<Event> cachedEvents = new ArrayList<>();
+    private final FrameTimeMonitor frameMonitor = new FrameTimeMonitor("EventListFragment");
 
     @Nullable
     @Override
@@ -46,6 +61,7 @@ public class EventListFragment extends Fragment {
 
         initViews(view);
         setupRecyclerView();
+        showCachedEvents();
         loadEvents();
 
         return view;
@@ -58,6 +74,7 @@ public class EventListFragment extends Fragment {
         tvEmpty = view.findViewById(R.id.tvEmpty);
 
         apiClient = new ApiClient(requireContext());
+        repository = DataRepository.getInstance(requireContext());
         prefsManager = SharedPreferencesManager.getInstance(requireContext());
 
         // Show FAB only for admin
@@ -77,7 +94,7 @@ public class EventListFragment extends Fragment {
                     "Name: " + (event != null ? event.getName() : "null") + "\n" +
                     "ID: " + (event != null ? event.getEventId() : "null");
 
-            android.util.Log.d("EventListFragment", "Click - " + eventInfo);
+            AppLog.d("EventListFragment", "Click - " + eventInfo);
             Toast.makeText(getContext(), eventInfo, Toast.LENGTH_LONG).show();
 
             // Navigate to event detail activity
@@ -90,76 +107,110 @@ public class EventListFragment extends Fragment {
             }
         });
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        recyclerView.setAdapter(adapter);
-    }
+        footerAdapter = new LoadingFooterAdapter();
+        layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(new ConcatAdapter(adapter, footerAdapter));
 
-    private void loadEvents() {
-        swipeRefresh.setRefreshing(true);
-        tvEmpty.setVisibility(View.GONE);
+        // Request the next page before the user reaches the end of the list
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0) {
+                    pager.onScrolled(layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
 
-        apiClient.getAuth("/events/all", new ApiClient.ApiCallback() {
+        // Upcoming and ongoing events load first, past events page in on scroll
+        pager = new EventPager(apiClient, PAGE_SIZE, PREFETCH_DISTANCE, true, new EventPager.Listener() {
             @Override
-            public void onSuccess(String response) {
+            public void onEventsLoaded(List<Event> events, boolean hasMore) {
                 swipeRefresh.setRefreshing(false);
-                try {
-                    // Log the response to see what we're getting
-                    android.util.Log.d("EventListFragment", "API Response: " + response);
-
-                    JSONArray jsonArray = new JSONArray(response);
-                    List<Event> events = new ArrayList<>();
-
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject jsonObject = jsonArray.getJSONObject(i);
-                        // Log each event object
-                        android.util.Log.d("EventListFragment", "Event " + i + ": " + jsonObject.toString());
-
-                        // Log all keys in the JSON object
-                        android.util.Log.d("EventListFragment", "Keys: " + jsonObject.keys().toString());
-
-                        // Log specific field checks
-                        android.util.Log.d("EventListFragment", "Has 'name': " + jsonObject.has("name"));
-                        android.util.Log.d("EventListFragment", "Has 'eventName': " + jsonObject.has("eventName"));
-                        android.util.Log.d("EventListFragment", "Has 'title': " + jsonObject.has("title"));
-                        if (jsonObject.has("name")) {
-                            android.util.Log.d("EventListFragment", "name value: " + jsonObject.getString("name"));
-                        }
-
-                        Event event = Event.fromJson(jsonObject);
-
-                        // Log parsed event details
-                        android.util.Log.d("EventListFragment",
-                                "Parsed Event - ID: " + event.getEventId() + ", Name: " + event.getName());
-
-                        events.add(event);
-                    }
-
-                    adapter.setEvents(events);
-
-                    if (events.isEmpty()) {
-                        tvEmpty.setVisibility(View.VISIBLE);
-                        recyclerView.setVisibility(View.GONE);
-                    } else {
-                        tvEmpty.setVisibility(View.GONE);
-                        recyclerView.setVisibility(View.VISIBLE);
-                    }
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error parsing events: " + e.getMessage());
+                AppLog.d("EventListFragment", "Loaded %s events", events.size());
+
+                repository.saveEvents(events, !hasMore);
+                if (!hasMore) {
+                    cachedEvents = new ArrayList<>();
+                }
+                adapter.setEvents(withCachedTail(events));
+                footerAdapter.setVisible(hasMore);
+
+                if (events.isEmpty() && !hasMore) {
+                    tvEmpty.setVisibility(View.VISIBLE);
+                    recyclerView.setVisibility(View.GONE);
+                } else {
+                    tvEmpty.setVisibility(View.GONE);
+                    recyclerView.setVisibility(View.VISIBLE);
                 }
             }
 
             @Override
             public void onError(String error) {
                 swipeRefresh.setRefreshing(false);
+                footerAdapter.setVisible(false);
                 showError(error);
-                tvEmpty.setVisibility(View.VISIBLE);
-                recyclerView.setVisibility(View.GONE);
+                if (adapter.getItemCount() == 0) {
+                    tvEmpty.setVisibility(View.VISIBLE);
+                    recyclerView.setVisibility(View.GONE);
+                }
+            }
+        });
+    }
+
+    /**
+     * Render the last known catalogue straight from the local store
+     */
+    private void showCachedEvents() {
+        repository.getCachedEvents(new DataRepository.Listener<List<Event>>() {
+            @Override
+            public void onData(List<Event> events, boolean fromCache) {
+                if (events.isEmpty() || adapter.getItemCount() > 0) {
+                    return; // Network already answered
+                }
+                cachedEvents = events;
+                adapter.setEvents(events);
+                tvEmpty.setVisibility(View.GONE);
+                recyclerView.setVisibility(View.VISIBLE);
+            }
+
+            @Override
+            public void onUnchanged() {
+            }
+
+            @Override
+            public void onError(String error) {
             }
         });
     }
 
+    /**
+     * While pages are still loading, keep showing cached events that have not
+     * been revalidated yet so the list does not shrink and regrow.
+     */
+    private List<Event> withCachedTail(List<Event> loaded) {
+        if (cachedEvents.isEmpty()) {
+            return loaded;
+        }
+        Set<String> loadedIds = new HashSet<>();
+        for (Event event : loaded) {
+            loadedIds.add(event.getEventId());
+        }
+        List<Event> merged = new ArrayList<>(loaded);
+        for (Event event : cachedEvents) {
+            if (!loadedIds.contains(event.getEventId())) {
+                merged.add(event);
+            }
+        }
+        return merged;
+    }
+
+    private void loadEvents() {
+        swipeRefresh.setRefreshing(true);
+        tvEmpty.setVisibility(View.GONE);
+        pager.refresh();
+    }
+
     private void showError(String message) {
         if (getView() != null) {
             Snackbar.make(getView(), message, Snackbar.LENGTH_LONG).show();
@@ -169,6 +220,19 @@ public class EventListFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
+        frameMonitor.start();
         loadEvents(); // Refresh when returning from other activities
     }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        frameMonitor.stop();
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        pager.cancel();
+    }
 }
\ No newline at end of file
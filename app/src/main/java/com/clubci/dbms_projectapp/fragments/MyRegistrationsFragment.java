@@ -15,12 +15,12 @@ import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.adapters.RegistrationAdapter;
 import com.clubci.dbms_projectapp.models.Registration;
 import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.utils.DataRepository;
+import com.clubci.dbms_projectapp.utils.FrameTimeMonitor;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.snackbar.Snackbar;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,7 +36,9 @@ public class MyRegistrationsFragment extends Fragment {
     private List<Registration> filteredRegistrations = new ArrayList<>();
 
     private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
+    private final FrameTimeMonitor frameMonitor = new FrameTimeMonitor("MyRegistrationsFragment");
     private String currentFilter = "ALL";
 
     @Nullable
@@ -52,6 +54,7 @@ public class MyRegistrationsFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
 
         apiClient = new ApiClient(requireContext());
+        repository = DataRepository.getInstance(requireContext());
         prefsManager = SharedPreferencesManager.getInstance(requireContext());
 
         recyclerView = view.findViewById(R.id.recyclerView);
@@ -92,29 +95,25 @@ public class MyRegistrationsFragment extends Fragment {
     }
 
     private void loadRegistrations() {
+        if (getView() == null) {
+            return; // e.g. a cancel finished after leaving the tab
+        }
         swipeRefreshLayout.setRefreshing(true);
 
         String username = prefsManager.getUsername();
-        apiClient.getAuth("/events/user/" + username + "/registrations", new ApiClient.ApiCallback() {
+        repository.loadUserRegistrations(username, new DataRepository.Listener<List<Registration>>() {
             @Override
-            public void onSuccess(String response) {
-                swipeRefreshLayout.setRefreshing(false);
-                try {
-                    JSONArray jsonArray = new JSONArray(response);
-                    allRegistrations.clear();
-
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject json = jsonArray.getJSONObject(i);
-                        Registration registration = Registration.fromJson(json);
-                        allRegistrations.add(registration);
-                    }
+            public void onData(List<Registration> registrations, boolean fromCache) {
+                swipeRefreshLayout.setRefreshing(fromCache);
+                allRegistrations.clear();
+                allRegistrations.addAll(registrations);
 
-                    filterRegistrations();
+                filterRegistrations();
+            }
 
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error parsing registrations");
-                }
+            @Override
+            public void onUnchanged() {
+                swipeRefreshLayout.setRefreshing(false);
             }
 
             @Override
@@ -123,7 +122,7 @@ public class MyRegistrationsFragment extends Fragment {
                 showError(error);
                 updateEmptyState();
             }
-        });
+        }).bindTo(getViewLifecycleOwner());
     }
 
     private void filterRegistrations() {
@@ -216,6 +215,13 @@ public class MyRegistrationsFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
+        frameMonitor.start();
         loadRegistrations();
     }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        frameMonitor.stop();
+    }
 }
@@ -11,7 +11,10 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 import com.clubci.dbms_projectapp.R;
+import com.clubci.dbms_projectapp.activities.DiagnosticsActivity;
 import com.clubci.dbms_projectapp.activities.LoginActivity;
+import com.clubci.dbms_projectapp.utils.AttendanceSync;
+import com.clubci.dbms_projectapp.utils.DataRepository;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
@@ -86,6 +89,12 @@ public class ProfileFragment extends Fragment {
         });
 
         btnLogout.setOnClickListener(v -> showLogoutConfirmation());
+
+        // Hidden entry point to the metrics screen
+        tvUsername.setOnLongClickListener(v -> {
+            startActivity(new Intent(requireContext(), DiagnosticsActivity.class));
+            return true;
+        });
     }
 
     private void showLogoutConfirmation() {
@@ -98,7 +107,10 @@ public class ProfileFragment extends Fragment {
     }
 
     private void logout() {
+        // Also drops the token and the pass signing keys
         prefsManager.clearAll();
+        DataRepository.getInstance(requireContext()).clear();
+        AttendanceSync.getInstance(requireContext()).clear();
 
         Intent intent = new Intent(requireContext(), LoginActivity.class);
         intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -16,15 +16,21 @@ import androidx.fragment.app.Fragment;
 import com.clubci.dbms_projectapp.R;
 import com.clubci.dbms_projectapp.activities.QrScannerActivity;
 import com.clubci.dbms_projectapp.models.Event;
-import com.clubci.dbms_projectapp.utils.ApiClient;
+import com.clubci.dbms_projectapp.models.EventPass;
+import com.clubci.dbms_projectapp.models.Registration;
+import com.clubci.dbms_projectapp.utils.DataRepository;
+import com.clubci.dbms_projectapp.utils.PassWallet;
 import com.clubci.dbms_projectapp.utils.QRCodeGenerator;
+import com.clubci.dbms_projectapp.utils.QrPayloadCodec;
 import com.clubci.dbms_projectapp.utils.SharedPreferencesManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.snackbar.Snackbar;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class QrCodeFragment extends Fragment {
 
@@ -33,11 +39,25 @@ public class QrCodeFragment extends Fragment {
     private Spinner spinnerEvents;
     private MaterialButton btnGenerate, btnScanQR;
 
-    private ApiClient apiClient;
+    private DataRepository repository;
     private SharedPreferencesManager prefsManager;
     private List<Event> userEvents = new ArrayList<>();
+    // Signed pass per entry of userEvents, null where the backend issued none
+    private List<String> qrTokens = new ArrayList<>();
     private String selectedEventId;
 
+    private static final int QR_SIZE = 512;
+    private static final String STATE_LAST_SHOWN_EVENT = "lastShownEventId";
+    private static final String STATE_LAST_SHOWN_USER = "lastShownUser";
+    private static final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+    // Pass shown last, restored when the view is recreated for the same user
+    private String lastShownEventId;
+    // JSON payloads embed their creation time; reuse one per event (the wallet's
+    // if it has one) so its bitmap stays cached
+    private final Map<String, String> jsonPayloads = new HashMap<>();
+    // Wallet passes for this view by payload; only the shown one is decoded
+    private final Map<String, EventPass> walletPasses = new HashMap<>();
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -50,9 +70,14 @@ public class QrCodeFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
 
-        apiClient = new ApiClient(requireContext());
+        repository = DataRepository.getInstance(requireContext());
         prefsManager = SharedPreferencesManager.getInstance(requireContext());
 
+        if (savedInstanceState != null && prefsManager.getUsername() != null
+                && prefsManager.getUsername().equals(savedInstanceState.getString(STATE_LAST_SHOWN_USER))) {
+            lastShownEventId = savedInstanceState.getString(STATE_LAST_SHOWN_EVENT);
+        }
+
         ivQrCode = view.findViewById(R.id.ivQrCode);
         tvUsername = view.findViewById(R.id.tvUsername);
         tvEventName = view.findViewById(R.id.tvEventName);
@@ -75,50 +100,85 @@ public class QrCodeFragment extends Fragment {
 
         btnGenerate.setOnClickListener(v -> generateQRCode());
 
-        loadUserEvents();
+        // Registrations are (re)loaded in onResume; stored passes show first
+        loadPasses();
+    }
+
+    private void loadPasses() {
+        PassWallet.getInstance(requireContext()).getPasses(prefsManager.getUsername(), passes -> {
+            if (!isAdded()) {
+                return;
+            }
+            for (EventPass pass : passes) {
+                walletPasses.put(pass.getPayload(), pass);
+                if (!QrPayloadCodec.isCompact(pass.getPayload())) {
+                    jsonPayloads.put(pass.getEventId(), pass.getPayload());
+                }
+            }
+            if (!userEvents.isEmpty() || passes.isEmpty()) {
+                // Registrations got here first; they pick up the passes on display
+                return;
+            }
+            for (EventPass pass : passes) {
+                Event event = new Event();
+                event.setEventId(pass.getEventId());
+                event.setName(pass.getEventName());
+                userEvents.add(event);
+                qrTokens.add(pass.getPayload());
+            }
+            showEventList();
+            if (lastShownEventId == null) {
+                showQRCode(0);
+            }
+        });
     }
 
     private void loadUserEvents() {
         String username = prefsManager.getUsername();
-        apiClient.getAuth("/events/user/" + username + "/registrations", new ApiClient.ApiCallback() {
+        repository.loadUserRegistrations(username, new DataRepository.Listener<List<Registration>>() {
             @Override
-            public void onSuccess(String response) {
-                try {
-                    JSONArray jsonArray = new JSONArray(response);
-                    userEvents.clear();
-
-                    List<String> eventNames = new ArrayList<>();
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject json = jsonArray.getJSONObject(i);
-                        Event event = new Event();
-                        event.setEventId(json.optString("eventId"));
-                        event.setName(json.optString("eventName"));
-                        userEvents.add(event);
-                        eventNames.add(event.getName());
-                    }
-
-                    if (!userEvents.isEmpty()) {
-                        ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                                requireContext(),
-                                android.R.layout.simple_spinner_item,
-                                eventNames);
-                        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                        spinnerEvents.setAdapter(adapter);
-                    } else {
-                        showError("No registered events found");
-                    }
-
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showError("Error loading events");
+            public void onData(List<Registration> registrations, boolean fromCache) {
+                userEvents.clear();
+                qrTokens.clear();
+
+                for (Registration registration : registrations) {
+                    Event event = new Event();
+                    event.setEventId(registration.getEventId());
+                    event.setName(registration.getEventName());
+                    userEvents.add(event);
+                    qrTokens.add(registration.getQrToken());
+                }
+
+                if (!userEvents.isEmpty()) {
+                    showEventList();
+                } else {
+                    showError("No registered events found");
                 }
             }
 
+            @Override
+            public void onUnchanged() {
+            }
+
             @Override
             public void onError(String error) {
                 showError(error);
             }
-        });
+        }).bindTo(getViewLifecycleOwner());
+    }
+
+    private void showEventList() {
+        List<String> eventNames = new ArrayList<>();
+        for (Event event : userEvents) {
+            eventNames.add(event.getName());
+        }
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                requireContext(),
+                android.R.layout.simple_spinner_item,
+                eventNames);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerEvents.setAdapter(adapter);
+        restoreLastShown();
     }
 
     private void generateQRCode() {
@@ -133,23 +193,90 @@ public class QrCodeFragment extends Fragment {
             return;
         }
 
-        Event selectedEvent = userEvents.get(selectedPosition);
+        showQRCode(selectedPosition);
+    }
+
+    private void restoreLastShown() {
+        if (lastShownEventId == null) {
+            return;
+        }
+        for (int i = 0; i < userEvents.size(); i++) {
+            if (lastShownEventId.equals(userEvents.get(i).getEventId())) {
+                spinnerEvents.setSelection(i);
+                showQRCode(i);
+                return;
+            }
+        }
+    }
+
+    private void showQRCode(int position) {
+        Event selectedEvent = userEvents.get(position);
         selectedEventId = selectedEvent.getEventId();
 
         String username = prefsManager.getUsername();
         String eventName = selectedEvent.getName();
-        String qrData = QRCodeGenerator.generateUserQRData(username, eventName, selectedEventId);
-
-        try {
-            Bitmap qrBitmap = QRCodeGenerator.generateQRCode(qrData, 512, 512);
-            ivQrCode.setImageBitmap(qrBitmap);
-            ivQrCode.setVisibility(View.VISIBLE);
-            tvEventName.setText("Event: " + selectedEvent.getName());
-            tvEventName.setVisibility(View.VISIBLE);
-        } catch (Exception e) {
-            e.printStackTrace();
-            showError("Error generating QR code");
+        // Prefer the signed compact pass: smaller code, verifiable at the door
+        String qrData = qrTokens.get(position);
+        if (qrData == null || qrData.isEmpty()) {
+            qrData = jsonPayloads.get(selectedEventId);
+            if (qrData == null) {
+                qrData = QRCodeGenerator.generateUserQRData(username, eventName, selectedEventId);
+                jsonPayloads.put(selectedEventId, qrData);
+            }
+        }
+        String payload = qrData;
+
+        // Pre-rendered pass from the wallet: no encoding at all. A reissued
+        // token has a new payload, so the old image is not used for it.
+        EventPass pass = walletPasses.get(payload);
+        if (pass != null) {
+            PassWallet.getInstance(requireContext()).loadImage(pass, QR_SIZE, bitmap -> {
+                if (!isAdded() || !selectedEvent.getEventId().equals(selectedEventId)) {
+                    return;
+                }
+                if (bitmap != null) {
+                    displayQRCode(bitmap, selectedEvent);
+                } else {
+                    walletPasses.remove(payload);
+                    renderQRCode(payload, selectedEvent);
+                }
+            });
+            return;
+        }
+        renderQRCode(payload, selectedEvent);
+    }
+
+    private void renderQRCode(String payload, Event selectedEvent) {
+        Bitmap cached = QRCodeGenerator.getCachedQRCode(payload, QR_SIZE, QR_SIZE);
+        if (cached != null) {
+            displayQRCode(cached, selectedEvent);
+            return;
         }
+
+        // Encoding and rendering stay off the main thread
+        btnGenerate.setEnabled(false);
+        renderExecutor.execute(() -> {
+            Bitmap qrBitmap = QRCodeGenerator.generateQRCode(payload, QR_SIZE, QR_SIZE);
+            ivQrCode.post(() -> {
+                if (!isAdded()) {
+                    return;
+                }
+                btnGenerate.setEnabled(true);
+                if (qrBitmap == null) {
+                    showError("Error generating QR code");
+                    return;
+                }
+                displayQRCode(qrBitmap, selectedEvent);
+            });
+        });
+    }
+
+    private void displayQRCode(Bitmap qrBitmap, Event event) {
+        ivQrCode.setImageBitmap(qrBitmap);
+        ivQrCode.setVisibility(View.VISIBLE);
+        tvEventName.setText("Event: " + event.getName());
+        tvEventName.setVisibility(View.VISIBLE);
+        lastShownEventId = event.getEventId();
     }
 
     private void showError(String message) {
@@ -158,6 +285,15 @@ public class QrCodeFragment extends Fragment {
         }
     }
 
+    @Override
+    public void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_LAST_SHOWN_EVENT, lastShownEventId);
+        if (prefsManager != null) {
+            outState.putString(STATE_LAST_SHOWN_USER, prefsManager.getUsername());
+        }
+    }
+
     @Override
     public void onResume() {
         super.onResume();
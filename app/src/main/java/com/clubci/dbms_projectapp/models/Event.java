@@ -1,7 +1,10 @@
 package com.clubci.dbms_projectapp.models;
 
+import android.util.JsonReader;
+import com.clubci.dbms_projectapp.utils.JsonStreamDecoder;
 import org.json.JSONException;
 import org.json.JSONObject;
+import java.io.IOException;
 import java.util.Date;
 
 public class Event {
@@ -285,4 +288,92 @@ public class Event {
             event.setStatus(json.getString("status"));
         return event;
     }
+
+    /**
+     * Create Event from a streaming JSON reader positioned at an object
+     */
+    public static Event fromJsonReader(JsonReader reader) throws IOException {
+        Event event = new Event();
+        String eventId = null, mongoId = null, id = null;
+        String name = null, eventName = null, title = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            switch (field) {
+                case "eventId":
+                    eventId = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "_id":
+                    mongoId = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "id":
+                    id = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "name":
+                    name = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "eventName":
+                    eventName = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "title":
+                    title = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "description":
+                    event.setDescription(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "type":
+                    event.setType(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "dateTime": {
+                    Long timestamp = JsonStreamDecoder.nextTimestamp(reader);
+                    if (timestamp != null)
+                        event.setDateTime(new Date(timestamp));
+                    break;
+                }
+                case "venue":
+                    event.setVenue(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "registrationDeadline": {
+                    Long timestamp = JsonStreamDecoder.nextTimestamp(reader);
+                    if (timestamp != null)
+                        event.setRegistrationDeadline(new Date(timestamp));
+                    break;
+                }
+                case "maxParticipants":
+                    event.setMaxParticipants(JsonStreamDecoder.nextInt(reader, 0));
+                    break;
+                case "currentParticipants":
+                    event.setCurrentParticipants(JsonStreamDecoder.nextInt(reader, 0));
+                    break;
+                case "fee":
+                    event.setFee(JsonStreamDecoder.nextDouble(reader, 0.0));
+                    break;
+                case "posterUrl":
+                    event.setPosterUrl(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "requirements":
+                    event.setRequirements(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "contactInfo":
+                    event.setContactInfo(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "attendedCount":
+                    event.setAttendedCount(JsonStreamDecoder.nextInt(reader, 0));
+                    break;
+                case "status":
+                    event.setStatus(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        // Same precedence as fromJson: eventId, then _id (MongoDB default), then id
+        event.setEventId(eventId != null ? eventId : mongoId != null ? mongoId : id);
+        event.setName(name != null ? name : eventName != null ? eventName : title);
+        return event;
+    }
 }
@@ -0,0 +1,109 @@
+package com.clubci.dbms_projectapp.models;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A pre-rendered QR pass for one registration, kept on the device
+ */
+public class EventPass {
+    private String eventId;
+    private String eventName;
+    private String username;
+    private String payload; // text encoded in the QR code
+    private String imagePath; // rendered PNG
+    private long createdAt;
+
+    public EventPass() {
+    }
+
+    public EventPass(String eventId, String eventName, String username, String payload) {
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.username = username;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getImagePath() {
+        return imagePath;
+    }
+
+    public void setImagePath(String imagePath) {
+        this.imagePath = imagePath;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        if (eventId != null)
+            json.put("eventId", eventId);
+        if (eventName != null)
+            json.put("eventName", eventName);
+        if (username != null)
+            json.put("username", username);
+        if (payload != null)
+            json.put("payload", payload);
+        if (imagePath != null)
+            json.put("imagePath", imagePath);
+        json.put("createdAt", createdAt);
+        return json;
+    }
+
+    public static EventPass fromJson(JSONObject json) throws JSONException {
+        EventPass pass = new EventPass();
+        if (json.has("eventId"))
+            pass.setEventId(json.getString("eventId"));
+        if (json.has("eventName"))
+            pass.setEventName(json.getString("eventName"));
+        if (json.has("username"))
+            pass.setUsername(json.getString("username"));
+        if (json.has("payload"))
+            pass.setPayload(json.getString("payload"));
+        if (json.has("imagePath"))
+            pass.setImagePath(json.getString("imagePath"));
+        if (json.has("createdAt"))
+            pass.setCreatedAt(json.getLong("createdAt"));
+        return pass;
+    }
+}
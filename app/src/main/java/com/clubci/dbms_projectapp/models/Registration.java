@@ -1,7 +1,10 @@
 package com.clubci.dbms_projectapp.models;
 
+import android.util.JsonReader;
+import com.clubci.dbms_projectapp.utils.JsonStreamDecoder;
 import org.json.JSONException;
 import org.json.JSONObject;
+import java.io.IOException;
 import java.util.Date;
 
 public class Registration {
@@ -16,6 +19,7 @@ public class Registration {
     private Date eventDate;
     private String venue;
     private double fee;
+    private String qrToken; // signed compact pass issued by the backend, if any
 
     public Registration() {
     }
@@ -117,6 +121,14 @@ public class Registration {
         this.fee = fee;
     }
 
+    public String getQrToken() {
+        return qrToken;
+    }
+
+    public void setQrToken(String qrToken) {
+        this.qrToken = qrToken;
+    }
+
     /**
      * Check if payment is completed
      */
@@ -157,6 +169,8 @@ public class Registration {
         if (venue != null)
             json.put("venue", venue);
         json.put("fee", fee);
+        if (qrToken != null)
+            json.put("qrToken", qrToken);
         return json;
     }
 
@@ -199,6 +213,68 @@ public class Registration {
             registration.setVenue(json.getString("venue"));
         if (json.has("fee"))
             registration.setFee(json.getDouble("fee"));
+        if (json.has("qrToken"))
+            registration.setQrToken(json.getString("qrToken"));
+        return registration;
+    }
+
+    /**
+     * Create Registration from a streaming JSON reader positioned at an object
+     */
+    public static Registration fromJsonReader(JsonReader reader) throws IOException {
+        Registration registration = new Registration();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            switch (field) {
+                case "registrationId":
+                    registration.setRegistrationId(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "eventId":
+                    registration.setEventId(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "eventName":
+                    registration.setEventName(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "username":
+                    registration.setUsername(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "fullName":
+                    registration.setFullName(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "registrationDate": {
+                    Long timestamp = JsonStreamDecoder.nextTimestamp(reader);
+                    if (timestamp != null)
+                        registration.setRegistrationDate(new Date(timestamp));
+                    break;
+                }
+                case "paymentStatus":
+                    registration.setPaymentStatus(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "attendanceStatus":
+                    registration.setAttendanceStatus(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "eventDate": {
+                    Long timestamp = JsonStreamDecoder.nextTimestamp(reader);
+                    if (timestamp != null)
+                        registration.setEventDate(new Date(timestamp));
+                    break;
+                }
+                case "venue":
+                    registration.setVenue(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                case "fee":
+                    registration.setFee(JsonStreamDecoder.nextDouble(reader, 0.0));
+                    break;
+                case "qrToken":
+                    registration.setQrToken(JsonStreamDecoder.nextStringOrNull(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
         return registration;
     }
 }
@@ -8,22 +8,76 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 public class ApiClient {
 
+    private static final String TAG = "ApiClient";
     // TODO: Replace with your actual API base URL
     private static final String BASE_URL = "http://10.222.23.56:3000";
 
-    private static final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private static final int THREAD_COUNT = 4;
+    // Queued requests are taken by priority, then in submission order
+    private static final ThreadPoolExecutor executorService = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+            0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
     private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final long CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+    // Smaller bodies don't shrink enough to be worth the gzip header and CPU
+    private static final int GZIP_REQUEST_MIN_BYTES = 1024;
+    private static final int BODY_LOG_SAMPLE_RATE = 10; // log one body in 10
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MS = 30_000;
+    private static final String CIRCUIT_OPEN_ERROR = "Network error: server unavailable, try again shortly";
+
+    private static final AppLog.Sampler bodySampler = new AppLog.Sampler(BODY_LOG_SAMPLE_RATE);
+
+    private static final Parser<String> STRING_PARSER = body -> {
+        String result = readFully(body);
+        if (shouldLogBody()) {
+            AppLog.d(TAG, "Response: " + AppLog.truncate(result));
+        }
+        return result;
+    };
+
+    private static volatile HttpTransport transport = new UrlConnectionTransport(15000, 15000);
+    private static volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private static HttpDiskCache responseCache;
+    private static final ServerCapabilities capabilities = new ServerCapabilities();
+    private static final Map<FlightKey, Flight> inFlightRequests = new HashMap<>();
+    private static final AtomicLong coalescedRequests = new AtomicLong();
+    private static final AtomicLong taskSequence = new AtomicLong();
+
+    /**
+     * Status passed to onError(int, String) when no usable HTTP response was
+     * received (connection failure, open circuit, unreadable body)
+     */
+    public static final int NO_RESPONSE = 0;
 
     private final Context context;
 
@@ -35,191 +89,905 @@ public class ApiClient {
         void onSuccess(String response);
 
         void onError(String error);
+
+        /**
+         * Error with the HTTP status of the response, {@link #NO_RESPONSE}
+         * if there was no usable one; 401 also when no user is signed in. Override to
+         * tell failures apart without matching message text.
+         */
+        default void onError(int status, String error) {
+            onError(error);
+        }
+    }
+
+    /**
+     * Decodes a response body on the worker thread
+     */
+    public interface Parser<T> {
+        T parse(InputStream body) throws IOException;
+    }
+
+    /**
+     * Receives an already parsed result on the main thread
+     */
+    public interface TypedCallback<T> {
+        void onSuccess(T result);
+
+        void onError(String error);
+
+        /**
+         * See {@link ApiCallback#onError(int, String)}
+         */
+        default void onError(int status, String error) {
+            onError(error);
+        }
+    }
+
+    /**
+     * Order in which queued requests get a worker thread. Writes default to
+     * HIGH and reads to NORMAL.
+     */
+    public enum Priority {
+        HIGH, // user actions and attendance uploads
+        NORMAL, // data a screen is waiting for
+        LOW // background refreshes
     }
 
     /**
      * Make GET request
      */
-    public void get(String endpoint, ApiCallback callback) {
-        makeRequest("GET", endpoint, null, callback);
+    public RequestHandle get(String endpoint, ApiCallback callback) {
+        return makeRequest("GET", endpoint, null, Priority.NORMAL, callback);
     }
 
     /**
      * Make POST request
      */
-    public void post(String endpoint, JSONObject body, ApiCallback callback) {
-        makeRequest("POST", endpoint, body, callback);
+    public RequestHandle post(String endpoint, JSONObject body, ApiCallback callback) {
+        return makeRequest("POST", endpoint, body, Priority.HIGH, callback);
     }
 
     /**
      * Make PUT request
      */
-    public void put(String endpoint, JSONObject body, ApiCallback callback) {
-        makeRequest("PUT", endpoint, body, callback);
+    public RequestHandle put(String endpoint, JSONObject body, ApiCallback callback) {
+        return makeRequest("PUT", endpoint, body, Priority.HIGH, callback);
     }
 
     /**
      * Make DELETE request
      */
-    public void delete(String endpoint, ApiCallback callback) {
-        makeRequest("DELETE", endpoint, null, callback);
+    public RequestHandle delete(String endpoint, ApiCallback callback) {
+        return makeRequest("DELETE", endpoint, null, Priority.HIGH, callback);
     }
 
     /**
-     * Make authenticated GET request
+     * Make authenticated GET request.
+     * Responses with an ETag or Last-Modified header are cached on disk and
+     * revalidated with a conditional request; a 304 is served from the cache.
      */
-    public void getAuth(String endpoint, ApiCallback callback) {
-        makeAuthRequest("GET", endpoint, null, callback);
+    public RequestHandle getAuth(String endpoint, ApiCallback callback) {
+        return getAuth(endpoint, STRING_PARSER, typed(callback));
+    }
+
+    /**
+     * Make authenticated GET request and parse the body on the worker thread.
+     * The callback receives the ready model on the main thread.
+     *
+     * Identical requests (same endpoint, user and parser instance) that overlap
+     * share one network call, so parsers should be reused constants (see
+     * {@link ModelParsers}). The result object is shared between those
+     * callbacks and must not be mutated.
+     */
+    public <T> RequestHandle getAuth(String endpoint, Parser<T> parser, TypedCallback<T> callback) {
+        return getAuth(endpoint, parser, Priority.NORMAL, callback);
+    }
+
+    /**
+     * Typed authenticated GET queued at the given priority. A request that
+     * joins an identical one queued at a lower priority moves it up.
+     */
+    public <T> RequestHandle getAuth(String endpoint, Parser<T> parser, Priority priority,
+            TypedCallback<T> callback) {
+        RequestHandle handle = new RequestHandle();
+        String token = SharedPreferencesManager.getInstance(context).getToken();
+        String metric = Metrics.endpointName("GET", endpoint);
+
+        if (token == null || token.isEmpty()) {
+            postToMain(metric, handle, () -> callback.onError(HTTP_UNAUTHORIZED, "Not authenticated"));
+            return handle;
+        }
+
+        // Single-flight: identical GETs share the request already on the wire
+        FlightKey flightKey = new FlightKey(endpoint, token, parser);
+        Waiter waiter = new Waiter(callback, handle);
+        Flight flight;
+        synchronized (inFlightRequests) {
+            flight = inFlightRequests.get(flightKey);
+            if (flight != null) {
+                flight.waiters.add(waiter);
+                coalescedRequests.incrementAndGet();
+                promote(flight.task, priority);
+            } else {
+                flight = new Flight();
+                flight.waiters.add(waiter);
+                inFlightRequests.put(flightKey, flight);
+                Flight started = flight;
+                flight.task = submit("GET", endpoint, priority, flight.handle, true, () -> {
+                    AppLog.d(TAG, "Request: GET %s", endpoint);
+                    return fetchAuthGet(endpoint, token, parser, metric);
+                }, new TypedCallback<T>() {
+                    @Override
+                    public void onSuccess(T result) {
+                        deliverSuccess(flightKey, started, result);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        onError(NO_RESPONSE, error);
+                    }
+
+                    @Override
+                    public void onError(int status, String error) {
+                        deliverError(flightKey, started, status, error);
+                    }
+                });
+            }
+        }
+        Flight joined = flight;
+        handle.addCancelAction(() -> leaveFlight(flightKey, joined, waiter));
+        return handle;
     }
 
     /**
      * Make authenticated POST request
      */
-    public void postAuth(String endpoint, JSONObject body, ApiCallback callback) {
-        makeAuthRequest("POST", endpoint, body, callback);
+    public RequestHandle postAuth(String endpoint, JSONObject body, ApiCallback callback) {
+        return makeAuthRequest("POST", endpoint, body, null, Priority.HIGH, callback);
+    }
+
+    /**
+     * Make authenticated POST request that may be retried like a GET. The
+     * key is sent as Idempotency-Key; the server must treat requests with
+     * the same key as one.
+     */
+    public RequestHandle postAuth(String endpoint, JSONObject body, String idempotencyKey, ApiCallback callback) {
+        return makeAuthRequest("POST", endpoint, body, idempotencyKey, Priority.HIGH, callback);
     }
 
     /**
      * Make authenticated PUT request
      */
-    public void putAuth(String endpoint, JSONObject body, ApiCallback callback) {
-        makeAuthRequest("PUT", endpoint, body, callback);
+    public RequestHandle putAuth(String endpoint, JSONObject body, ApiCallback callback) {
+        return makeAuthRequest("PUT", endpoint, body, null, Priority.HIGH, callback);
     }
 
     /**
      * Make authenticated DELETE request
      */
-    public void deleteAuth(String endpoint, ApiCallback callback) {
-        makeAuthRequest("DELETE", endpoint, null, callback);
+    public RequestHandle deleteAuth(String endpoint, ApiCallback callback) {
+        return makeAuthRequest("DELETE", endpoint, null, null, Priority.HIGH, callback);
     }
 
     /**
-     * Generic request method
+     * Mark a user's attendance. Uses the per-user endpoint or the legacy one,
+     * whichever the server turned out to support; until that is known the
+     * per-user endpoint is tried first and falls back only if the server
+     * doesn't have it (see {@link #isMissingEndpoint(int)}). Any other error
+     * goes to the caller.
+     *
+     * @param scannedAt time of the scan being sent; resending the same scan
+     *                  reuses its idempotency key, a later scan gets a new one
      */
-    private void makeRequest(String method, String endpoint, JSONObject body, ApiCallback callback) {
-        executorService.execute(() -> {
-            try {
-                URL url = new URL(BASE_URL + endpoint);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod(method);
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setConnectTimeout(15000);
-                connection.setReadTimeout(15000);
-
-                if (body != null && (method.equals("POST") || method.equals("PUT"))) {
-                    connection.setDoOutput(true);
-                    OutputStream os = connection.getOutputStream();
-                    os.write(body.toString().getBytes(StandardCharsets.UTF_8));
-                    os.close();
-                }
+    public RequestHandle postAttendance(String eventId, String username, long scannedAt, JSONObject body,
+            ApiCallback callback) {
+        String safeUsername;
+        try {
+            safeUsername = URLEncoder.encode(username, "UTF-8");
+        } catch (Exception e) {
+            safeUsername = username; // fallback without encoding
+        }
+        final String endpointV1 = "/events/" + eventId + "/attendance/" + safeUsername;
+        final String endpointV0 = "/events/" + eventId + "/attendance"; // legacy
+        // Sending the same scan twice is one operation, so it can be retried;
+        // each endpoint gets its own key since the URL and body differ
+        String scan = String.valueOf(scannedAt);
+        final String keyV1 = idempotencyKey("attendance", eventId, username, scan);
+        final String keyV0 = idempotencyKey("attendance-legacy", eventId, username, scan);
 
-                int responseCode = connection.getResponseCode();
+        ServerCapabilities.Support perUser = capabilities.getPerUserAttendance();
+        if (perUser == ServerCapabilities.Support.UNSUPPORTED) {
+            return postAuth(endpointV0, body, keyV0, callback);
+        }
 
-                if (responseCode >= 200 && responseCode < 300) {
-                    String response = readResponse(connection);
-                    mainHandler.post(() -> callback.onSuccess(response));
-                } else {
-                    String error = readError(connection);
-                    mainHandler.post(() -> callback.onError(error));
+        // Covers the fallback request too
+        RequestHandle handle = new RequestHandle();
+        handle.addCancelAction(postAuth(endpointV1, body, keyV1, new ApiCallback() {
+            @Override
+            public void onSuccess(String response) {
+                capabilities.setPerUserAttendance(true);
+                handle.finish();
+                callback.onSuccess(response);
+            }
+
+            @Override
+            public void onError(String error) {
+                onError(NO_RESPONSE, error);
+            }
+
+            @Override
+            public void onError(int status, String error) {
+                if (perUser == ServerCapabilities.Support.SUPPORTED || !isMissingEndpoint(status)) {
+                    handle.finish();
+                    callback.onError(status, error);
+                    return;
                 }
+                AppLog.d(TAG, "Per-user attendance endpoint missing (%d), trying legacy endpoint", status);
+                handle.addCancelAction(postAuth(endpointV0, body, keyV0, new ApiCallback() {
+                    @Override
+                    public void onSuccess(String response) {
+                        capabilities.setPerUserAttendance(false);
+                        handle.finish();
+                        callback.onSuccess(response);
+                    }
 
-                connection.disconnect();
+                    @Override
+                    public void onError(String error2) {
+                        onError(NO_RESPONSE, error2);
+                    }
 
-            } catch (IOException e) {
-                e.printStackTrace();
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+                    @Override
+                    public void onError(int status2, String error2) {
+                        handle.finish();
+                        callback.onError(status2, error2);
+                    }
+                })::cancel);
             }
-        });
+        })::cancel);
+        return handle;
+    }
+
+    /**
+     * Stable idempotency key for an operation identified by its parts
+     */
+    public static String idempotencyKey(String... parts) {
+        return UUID.nameUUIDFromBytes(String.join("\n", parts).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * True for statuses meaning the server has no such endpoint, as opposed
+     * to refusing this particular request
+     */
+    public static boolean isMissingEndpoint(int status) {
+        return status == HttpURLConnection.HTTP_NOT_FOUND
+                || status == HttpURLConnection.HTTP_BAD_METHOD
+                || status == HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+    }
+
+    /**
+     * Optional endpoints the backend has been found to support this session
+     */
+    public static ServerCapabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * Generic request method
+     */
+    private RequestHandle makeRequest(String method, String endpoint, JSONObject body, Priority priority,
+            ApiCallback callback) {
+        RequestHandle handle = new RequestHandle();
+        submit(method, endpoint, priority, handle, method.equals("GET"),
+                () -> send(buildRequest(method, endpoint, body, null)), typed(callback));
+        return handle;
     }
 
     /**
      * Generic authenticated request method
      */
-    private void makeAuthRequest(String method, String endpoint, JSONObject body, ApiCallback callback) {
+    private RequestHandle makeAuthRequest(String method, String endpoint, JSONObject body, String idempotencyKey,
+            Priority priority, ApiCallback callback) {
+        RequestHandle handle = new RequestHandle();
         String token = SharedPreferencesManager.getInstance(context).getToken();
 
         if (token == null || token.isEmpty()) {
-            mainHandler.post(() -> callback.onError("Not authenticated"));
-            return;
+            postToMain(Metrics.endpointName(method, endpoint), handle,
+                    () -> callback.onError(HTTP_UNAUTHORIZED, "Not authenticated"));
+            return handle;
         }
 
-        executorService.execute(() -> {
-            try {
-                URL url = new URL(BASE_URL + endpoint);
-                android.util.Log.d("ApiClient", "Request: " + method + " " + url);
-                if (body != null) {
-                    android.util.Log.d("ApiClient", "Body: " + body.toString());
+        boolean retryable = method.equals("GET") || idempotencyKey != null;
+        submit(method, endpoint, priority, handle, retryable, () -> {
+            HttpTransport.Request request = buildRequest(method, endpoint, body, token);
+            if (idempotencyKey != null) {
+                request.header("Idempotency-Key", idempotencyKey);
+            }
+            return send(request);
+        }, typed(callback));
+        return handle;
+    }
+
+    /**
+     * One exchange with a string response body
+     *
+     * @throws HttpStatusException for a non-2xx response
+     */
+    private String send(HttpTransport.Request request) throws IOException {
+        AppLog.d(TAG, "Request: %s %s", request.getMethod(), request.getUrl());
+        boolean logBodies = shouldLogBody();
+        if (logBodies && request.getBody() != null) {
+            AppLog.d(TAG, "Body: " + AppLog.truncate(new String(request.getBody(), StandardCharsets.UTF_8)));
+        }
+
+        try (HttpTransport.Response response = exchange(request)) {
+            int responseCode = response.getCode();
+
+            if (responseCode >= 200 && responseCode < 300) {
+                String result = readResponse(response);
+                if (logBodies) {
+                    AppLog.d(TAG, responseCode + " Response: " + AppLog.truncate(result));
                 }
+                return result;
+            }
+            String error = readError(response);
+            AppLog.w(TAG, responseCode + " Error response: " + AppLog.truncate(error));
+            throw new HttpStatusException(responseCode, error);
+        }
+    }
+
+    /**
+     * Execute a request, gzipping a large body unless the server is known
+     * not to accept it. If the server rejects the encoding (415, or a 400
+     * before support is known) the body is resent uncompressed, and later
+     * requests skip compression.
+     */
+    private static HttpTransport.Response exchange(HttpTransport.Request request) throws IOException {
+        HttpTransport.Request compressed = compressBody(request);
+        if (compressed == null) {
+            return transport.execute(request);
+        }
+
+        HttpTransport.Response response = transport.execute(compressed);
+        int code = response.getCode();
+        if (response.isSuccessful()) {
+            capabilities.setGzipRequests(true);
+            return response;
+        }
+        boolean rejected = code == HTTP_UNSUPPORTED_MEDIA_TYPE || (code == HTTP_BAD_REQUEST
+                && capabilities.getGzipRequests() == ServerCapabilities.Support.UNKNOWN);
+        if (!rejected) {
+            return response;
+        }
+        response.close();
+
+        HttpTransport.Response plain = transport.execute(request);
+        if (code == HTTP_UNSUPPORTED_MEDIA_TYPE || plain.isSuccessful()) {
+            AppLog.i(TAG, "Server rejected a gzip request body (" + code + "), sending bodies uncompressed");
+            capabilities.setGzipRequests(false);
+        }
+        return plain;
+    }
+
+    /**
+     * Copy of the request with a gzipped body, or null if the body is small,
+     * doesn't shrink, or the server doesn't accept it
+     */
+    private static HttpTransport.Request compressBody(HttpTransport.Request request) {
+        byte[] body = request.getBody();
+        if (body == null || body.length < GZIP_REQUEST_MIN_BYTES
+                || capabilities.getGzipRequests() == ServerCapabilities.Support.UNSUPPORTED) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            return null;
+        }
+        byte[] gzipped = bytes.toByteArray();
+        if (gzipped.length >= body.length) {
+            return null;
+        }
+        Metrics.histogram("api.request_compression "
+                + Metrics.endpointName(request.getMethod(), request.getUrl()), "%")
+                .record(gzipped.length * 100L / body.length);
+
+        HttpTransport.Request compressed = new HttpTransport.Request(request.getMethod(), request.getUrl());
+        compressed.getHeaders().putAll(request.getHeaders());
+        return compressed.header("Content-Encoding", "gzip").body(gzipped);
+    }
+
+    /**
+     * Authenticated GET that decodes the body on the worker thread.
+     * Runs on the executor; the parser sees either the network stream or, after
+     * a 304, the cached body. Cacheable responses are written to disk as they
+     * are read, so the body is never buffered in memory as a whole.
+     */
+    private <R> R fetchAuthGet(String endpoint, String token, Parser<R> parser, String metric)
+            throws IOException {
+        return fetchAuthGet(endpoint, token, parser, metric, true);
+    }
+
+    /**
+     * @param conditional false to skip revalidation and always download the body
+     */
+    private <R> R fetchAuthGet(String endpoint, String token, Parser<R> parser, String metric,
+            boolean conditional) throws IOException {
+        HttpTransport.Request request = buildRequest("GET", endpoint, null, token);
+
+        // Conditional GET: revalidate the cached copy instead of downloading it again
+        HttpDiskCache cache = getResponseCache();
+        String cacheKey = HttpDiskCache.key(endpoint, token);
+        HttpDiskCache.Entry cached = conditional ? cache.get(cacheKey) : null;
+        if (cached != null) {
+            if (cached.getEtag() != null) {
+                request.header("If-None-Match", cached.getEtag());
+            }
+            if (cached.getLastModified() != null) {
+                request.header("If-Modified-Since", cached.getLastModified());
+            }
+        }
 
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod(method);
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setRequestProperty("Authorization", "Bearer " + token);
-                connection.setConnectTimeout(15000);
-                connection.setReadTimeout(15000);
-
-                if (body != null && (method.equals("POST") || method.equals("PUT"))) {
-                    connection.setDoOutput(true);
-                    OutputStream os = connection.getOutputStream();
-                    os.write(body.toString().getBytes(StandardCharsets.UTF_8));
-                    os.close();
+        try (HttpTransport.Response response = transport.execute(request)) {
+            int responseCode = response.getCode();
+
+            if (responseCode == HTTP_NOT_MODIFIED && cached != null) {
+                InputStream in;
+                try {
+                    in = cached.openBody();
+                } catch (IOException e) {
+                    // Evicted since get(); the 304 is useless without the body
+                    AppLog.d(TAG, "Cached %s gone after 304, fetching it again", endpoint);
+                    Metrics.counter("api.cache_lost " + metric).increment();
+                    cache.remove(cacheKey);
+                    response.close();
+                    return fetchAuthGet(endpoint, token, parser, metric, false);
+                }
+                AppLog.d(TAG, "Not modified, serving cached %s", endpoint);
+                Metrics.counter("api.not_modified " + metric).increment();
+                try {
+                    return parse(parser, in, metric);
+                } finally {
+                    in.close();
                 }
+            }
 
-                int responseCode = connection.getResponseCode();
-                android.util.Log.d("ApiClient", "Response code: " + responseCode);
+            if (responseCode < 200 || responseCode >= 300) {
+                String error = readError(response);
+                AppLog.w(TAG, responseCode + " Error response: " + AppLog.truncate(error));
+                throw new HttpStatusException(responseCode, error);
+            }
 
-                if (responseCode >= 200 && responseCode < 300) {
-                    String response = readResponse(connection);
-                    android.util.Log.d("ApiClient", "Response: " + response);
-                    mainHandler.post(() -> callback.onSuccess(response));
-                } else {
-                    String error = readError(connection);
-                    android.util.Log.e("ApiClient", "Error response: " + error);
-                    mainHandler.post(() -> callback.onError(error));
+            InputStream body = response.getBody() != null ? response.getBody() : new ByteArrayInputStream(new byte[0]);
+            String etag = response.getHeader("ETag");
+            String lastModified = response.getHeader("Last-Modified");
+            if (etag == null && lastModified == null) {
+                if (cached != null) {
+                    cache.remove(cacheKey);
                 }
+                return parse(parser, body, metric);
+            }
 
-                connection.disconnect();
+            HttpDiskCache.Writer writer = cache.edit(cacheKey, etag, lastModified);
+            try {
+                InputStream in = writer.tee(body);
+                R result = parse(parser, in, metric);
+                // Copy any trailing bytes so the cached body is complete
+                byte[] rest = new byte[1024];
+                while (in.read(rest) != -1) {
+                    // written by tee
+                }
+                writer.commit();
+                return result;
+            } catch (IOException | RuntimeException e) {
+                writer.abort();
+                throw e;
+            }
+        }
+    }
 
+    /**
+     * Parsers read straight from the stream, so on a network response this
+     * includes reading the body; compare with "http.body_read"
+     */
+    private static <R> R parse(Parser<R> parser, InputStream in, String metric) throws IOException {
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = parser.parse(in);
+        } catch (RuntimeException e) {
+            // Parsers that trip over an unexpected shape (NumberFormatException and the like)
+            throw new ResponseParseException("Unexpected response: " + e, e);
+        }
+        Metrics.timer("api.parse " + metric).recordSince(start);
+        return result;
+    }
+
+    /**
+     * Whether to log this request's bodies: debug builds only, and then a
+     * sample, since bodies can be thousands of rows
+     */
+    private static boolean shouldLogBody() {
+        return AppLog.isLoggable(AppLog.DEBUG) && bodySampler.sample();
+    }
+
+    /**
+     * Work done by one try of a request
+     */
+    private interface Call<R> {
+        R execute() throws IOException;
+    }
+
+    /**
+     * Queue a request on the pool. Cancelling the handle takes it off the
+     * queue if it hasn't started.
+     *
+     * @param retryable whether the request is safe to repeat under the retry policy
+     */
+    private static <R> Task submit(String method, String endpoint, Priority priority, RequestHandle handle,
+            boolean retryable, Call<R> call, TypedCallback<R> callback) {
+        Attempt<R> attempt = new Attempt<>(Metrics.endpointName(method, endpoint), handle, retryable,
+                breakerFor(BASE_URL + endpoint), call, callback);
+        Task task = new Task(priority, handle, attempt);
+        attempt.task = task;
+        handle.addCancelAction(() -> {
+            if (executorService.remove(task)) {
+                Metrics.counter("api.cancelled_queued").increment();
+            }
+        });
+        executorService.execute(task);
+        return task;
+    }
+
+    /**
+     * Runs a request on a worker, retrying transient failures under the
+     * retry policy and failing fast while the host's circuit is open. The
+     * result or final error is posted to the main thread. Unreadable bodies
+     * and client-side exceptions fail at once and don't count as the host
+     * being down.
+     */
+    private static final class Attempt<R> implements Runnable {
+        private final String metric;
+        private final RequestHandle handle;
+        private final boolean retryable;
+        private final CircuitBreaker breaker;
+        private final Call<R> call;
+        private final TypedCallback<R> callback;
+        private Task task;
+        private int attempts;
+
+        Attempt(String metric, RequestHandle handle, boolean retryable, CircuitBreaker breaker, Call<R> call,
+                TypedCallback<R> callback) {
+            this.metric = metric;
+            this.handle = handle;
+            this.retryable = retryable;
+            this.breaker = breaker;
+            this.call = call;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            attempts++;
+            if (!breaker.allowRequest()) {
+                Metrics.counter("api.circuit_rejected " + metric).increment();
+                postToMain(metric, handle, () -> callback.onError(NO_RESPONSE, CIRCUIT_OPEN_ERROR));
+                return;
+            }
+
+            String error;
+            int status;
+            boolean transientError;
+            try {
+                R result = call.execute();
+                breaker.recordSuccess();
+                postToMain(metric, handle, () -> callback.onSuccess(result));
+                return;
+            } catch (HttpStatusException e) {
+                // Any answer below 500 means the server itself is up
+                if (e.getCode() >= 500) {
+                    breaker.recordFailure();
+                } else {
+                    breaker.recordSuccess();
+                }
+                error = e.getMessage();
+                status = e.getCode();
+                transientError = RetryPolicy.isRetryableStatus(e.getCode());
+            } catch (ResponseParseException e) {
+                // The server answered; the same body won't parse on a retry
+                breaker.recordSuccess();
+                Metrics.counter("api.parse_errors " + metric).increment();
+                AppLog.w(TAG, metric + " returned an unreadable response", e);
+                error = "Invalid response from server: " + e.getMessage();
+                status = NO_RESPONSE;
+                transientError = false;
             } catch (IOException e) {
-                e.printStackTrace();
-                android.util.Log.e("ApiClient", "Exception: " + e.getMessage());
-                mainHandler.post(() -> callback.onError("Network error: " + e.getMessage()));
+                breaker.recordFailure();
+                AppLog.w(TAG, metric + " failed", e);
+                error = "Network error: " + e.getMessage();
+                status = NO_RESPONSE;
+                transientError = true;
+            } catch (RuntimeException e) {
+                // A client-side bug: fail the request instead of the worker, so callers
+                // (and a coalesced flight) still hear back and a half-open probe is freed
+                breaker.release();
+                AppLog.e(TAG, metric + " crashed", e);
+                error = "Request failed: " + e;
+                status = NO_RESPONSE;
+                transientError = false;
+            }
+
+            RetryPolicy policy = retryPolicy;
+            if (transientError && retryable && policy.canRetry(attempts) && !handle.isCancelled()) {
+                long delayMs = policy.getDelayMs(attempts);
+                Metrics.counter("api.retries " + metric).increment();
+                AppLog.d(TAG, "Retrying %s in %s ms", metric, delayMs);
+                mainHandler.postDelayed(() -> requeue(task), delayMs);
+                return;
+            }
+            String finalError = error;
+            int finalStatus = status;
+            postToMain(metric, handle, () -> callback.onError(finalStatus, finalError));
+        }
+    }
+
+    private static void requeue(Task task) {
+        if (!task.handle.isCancelled()) {
+            task.queuedAt = System.nanoTime();
+            executorService.execute(task);
+        }
+    }
+
+    private static CircuitBreaker breakerFor(String url) {
+        String host;
+        try {
+            host = URI.create(url).getAuthority();
+        } catch (IllegalArgumentException e) {
+            host = null;
+        }
+        if (host == null) {
+            host = url;
+        }
+        CircuitBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            breakers.putIfAbsent(host, new CircuitBreaker(host, BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MS));
+            breaker = breakers.get(host);
+        }
+        return breaker;
+    }
+
+    private static TypedCallback<String> typed(ApiCallback callback) {
+        return new TypedCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+
+            @Override
+            public void onError(int status, String error) {
+                callback.onError(status, error);
+            }
+        };
+    }
+
+    /**
+     * Move a still queued task up to a higher priority
+     */
+    private static void promote(Task task, Priority priority) {
+        if (priority.compareTo(task.priority) < 0 && executorService.remove(task)) {
+            // Re-queue so the priority queue sees the new order
+            task.priority = priority;
+            executorService.execute(task);
+        }
+    }
+
+    /**
+     * Deliver a result on the main thread unless the request was cancelled,
+     * recording how long the callback kept the main thread busy
+     */
+    private static void postToMain(String metric, RequestHandle handle, Runnable callback) {
+        mainHandler.post(() -> {
+            if (handle.isCancelled()) {
+                Metrics.counter("api.callbacks_dropped").increment();
+            } else {
+                long start = System.nanoTime();
+                callback.run();
+                Metrics.timer("api.callback " + metric).recordSince(start);
             }
+            handle.finish();
         });
     }
 
     /**
-     * Read success response
+     * Queued request; ordered by priority, then by submission
      */
-    private String readResponse(HttpURLConnection connection) throws IOException {
-        BufferedReader reader = new BufferedReader(
-                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
-        StringBuilder response = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            response.append(line);
+    private static final class Task implements Runnable, Comparable<Task> {
+        private final RequestHandle handle;
+        private final Runnable body;
+        private final long sequence = taskSequence.getAndIncrement();
+        private volatile long queuedAt = System.nanoTime();
+        private volatile Priority priority;
+
+        Task(Priority priority, RequestHandle handle, Runnable body) {
+            this.priority = priority;
+            this.handle = handle;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            if (handle.isCancelled()) {
+                return;
+            }
+            Metrics.timer("api.queue_wait " + priority).recordSince(queuedAt);
+            body.run();
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Non-2xx response; the message is the server's error text
+     */
+    private static class HttpStatusException extends IOException {
+        private final int code;
+
+        HttpStatusException(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+
+        int getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * Identity of an in-flight GET: endpoint, user token and parser instance
+     */
+    private static final class FlightKey {
+        private final String endpoint;
+        private final String token;
+        private final Parser<?> parser;
+
+        FlightKey(String endpoint, String token, Parser<?> parser) {
+            this.endpoint = endpoint;
+            this.token = token;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FlightKey)) {
+                return false;
+            }
+            FlightKey other = (FlightKey) o;
+            return endpoint.equals(other.endpoint) && token.equals(other.token) && parser == other.parser;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * endpoint.hashCode() + token.hashCode()) + System.identityHashCode(parser);
+        }
+    }
+
+    /**
+     * One network GET and the callers sharing it. The flight's own handle is
+     * cancelled once every caller has cancelled theirs.
+     */
+    private static final class Flight {
+        final List<Waiter> waiters = new ArrayList<>(); // guarded by inFlightRequests
+        final RequestHandle handle = new RequestHandle();
+        Task task;
+    }
+
+    private static final class Waiter {
+        final TypedCallback<?> callback;
+        final RequestHandle handle;
+
+        Waiter(TypedCallback<?> callback, RequestHandle handle) {
+            this.callback = callback;
+            this.handle = handle;
+        }
+    }
+
+    private static void leaveFlight(FlightKey flightKey, Flight flight, Waiter waiter) {
+        synchronized (inFlightRequests) {
+            if (!flight.waiters.remove(waiter) || !flight.waiters.isEmpty()) {
+                return;
+            }
+            inFlightRequests.remove(flightKey, flight);
+        }
+        flight.handle.cancel();
+    }
+
+    private static List<Waiter> takeWaiters(FlightKey flightKey, Flight flight) {
+        synchronized (inFlightRequests) {
+            inFlightRequests.remove(flightKey, flight);
+            List<Waiter> waiters = new ArrayList<>(flight.waiters);
+            flight.waiters.clear();
+            return waiters;
         }
-        reader.close();
-        return response.toString();
+    }
+
+    /**
+     * Deliver one network result to every caller that joined the flight
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void deliverSuccess(FlightKey flightKey, Flight flight, T result) {
+        for (Waiter waiter : takeWaiters(flightKey, flight)) {
+            if (!waiter.handle.isCancelled()) {
+                ((TypedCallback<T>) waiter.callback).onSuccess(result);
+            }
+            waiter.handle.finish();
+        }
+    }
+
+    private static void deliverError(FlightKey flightKey, Flight flight, int status, String error) {
+        for (Waiter waiter : takeWaiters(flightKey, flight)) {
+            if (!waiter.handle.isCancelled()) {
+                waiter.callback.onError(status, error);
+            }
+            waiter.handle.finish();
+        }
+    }
+
+    /**
+     * Number of GETs answered by joining an identical in-flight request
+     */
+    public static long getCoalescedRequestCount() {
+        return coalescedRequests.get();
+    }
+
+    /**
+     * Requests waiting for a worker thread
+     */
+    public static int getQueuedRequestCount() {
+        return executorService.getQueue().size();
+    }
+
+    /**
+     * Build transport request with common headers
+     */
+    private HttpTransport.Request buildRequest(String method, String endpoint, JSONObject body, String token) {
+        HttpTransport.Request request = new HttpTransport.Request(method, BASE_URL + endpoint)
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null && (method.equals("POST") || method.equals("PUT"))) {
+            request.body(body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return request;
+    }
+
+    /**
+     * Read success response
+     */
+    private String readResponse(HttpTransport.Response response) throws IOException {
+        return readFully(response.getBody());
     }
 
     /**
      * Read error response
      */
-    private String readError(HttpURLConnection connection) throws IOException {
+    private String readError(HttpTransport.Response response) {
         try {
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8));
-            StringBuilder error = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                error.append(line);
-            }
-            reader.close();
+            String error = readFully(response.getBody());
 
             // Try to parse error message from JSON
             try {
-                JSONObject errorJson = new JSONObject(error.toString());
+                JSONObject errorJson = new JSONObject(error);
                 if (errorJson.has("message")) {
                     return errorJson.getString("message");
                 } else if (errorJson.has("error")) {
@@ -228,10 +996,77 @@ public class ApiClient {
             } catch (JSONException ignored) {
             }
 
-            return error.toString();
+            return error.isEmpty() ? "Error: " + response.getCode() : error;
         } catch (Exception e) {
-            return "Error: " + connection.getResponseCode();
+            return "Error: " + response.getCode();
+        }
+    }
+
+    private static String readFully(InputStream stream) throws IOException {
+        if (stream == null) {
+            return "";
         }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        StringBuilder builder = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            builder.append(line);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Shared response cache for authenticated GETs
+     */
+    private HttpDiskCache getResponseCache() {
+        synchronized (ApiClient.class) {
+            if (responseCache == null) {
+                responseCache = new HttpDiskCache(new File(context.getCacheDir(), "api_cache"), CACHE_SIZE_BYTES);
+            }
+            return responseCache;
+        }
+    }
+
+    /**
+     * Delete every cached response body (e.g. on logout). Call off the main thread.
+     */
+    public void clearResponseCache() {
+        getResponseCache().clear();
+    }
+
+    /**
+     * Replace the retry policy for retryable requests (RetryPolicy.NONE to disable)
+     */
+    public static void setRetryPolicy(RetryPolicy policy) {
+        retryPolicy = policy;
+    }
+
+    /**
+     * One line per host: circuit breaker state
+     */
+    public static String getCircuitSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (CircuitBreaker breaker : breakers.values()) {
+            if (summary.length() > 0) {
+                summary.append('\n');
+            }
+            summary.append(breaker.getSummary());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Replace the HTTP transport (e.g. with an HTTP/2 capable client)
+     */
+    public static void setTransport(HttpTransport newTransport) {
+        transport = newTransport;
+    }
+
+    /**
+     * Connection pool statistics of the current transport
+     */
+    public static ConnectionPoolStats getConnectionStats() {
+        return transport.getStats();
     }
 
     /**
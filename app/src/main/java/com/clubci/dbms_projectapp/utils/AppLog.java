@@ -0,0 +1,191 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.util.Log;
+
+import com.clubci.dbms_projectapp.BuildConfig;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logging facade over android.util.Log.
+ *
+ * Every call checks the level first, so a disabled message costs one field
+ * read. The format overloads only build the string when the level is on;
+ * callers that would box numbers or concatenate should guard with
+ * {@link #isLoggable(int)}. Bodies go through {@link #truncate(String)} and,
+ * on hot paths, a {@link Sampler}.
+ *
+ * Logged lines are also kept in a ring buffer that can be exported from the
+ * diagnostics screen. Release builds log INFO and above; with minify
+ * enabled, proguard-rules.pro strips the verbose/debug calls entirely.
+ */
+public final class AppLog {
+
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+    public static final int NONE = Log.ASSERT + 1;
+
+    public static final int MAX_BODY_CHARS = 512;
+    private static final int RING_SIZE = 500;
+    private static final String LEVELS = "??VDIWEA";
+
+    private static volatile int level = BuildConfig.DEBUG ? DEBUG : INFO;
+
+    // Ring buffer as parallel arrays so recording a line allocates nothing more
+    private static final long[] ringTimes = new long[RING_SIZE];
+    private static final int[] ringLevels = new int[RING_SIZE];
+    private static final String[] ringTags = new String[RING_SIZE];
+    private static final String[] ringMessages = new String[RING_SIZE];
+    private static int ringNext;
+    private static int ringSize;
+
+    private AppLog() {
+    }
+
+    /**
+     * Lets through one of every n calls, e.g. to log a sample of response bodies
+     */
+    public static final class Sampler {
+        private final int n;
+        private final AtomicLong calls = new AtomicLong();
+
+        public Sampler(int n) {
+            this.n = Math.max(1, n);
+        }
+
+        public boolean sample() {
+            return calls.getAndIncrement() % n == 0;
+        }
+    }
+
+    public static void setLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static boolean isLoggable(int priority) {
+        return priority >= level;
+    }
+
+    public static void v(String tag, String message) {
+        if (VERBOSE >= level) {
+            write(VERBOSE, tag, message, null);
+        }
+    }
+
+    public static void d(String tag, String message) {
+        if (DEBUG >= level) {
+            write(DEBUG, tag, message, null);
+        }
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (DEBUG >= level) {
+            write(DEBUG, tag, String.format(Locale.US, format, arg), null);
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (DEBUG >= level) {
+            write(DEBUG, tag, String.format(Locale.US, format, arg1, arg2), null);
+        }
+    }
+
+    public static void i(String tag, String message) {
+        if (INFO >= level) {
+            write(INFO, tag, message, null);
+        }
+    }
+
+    public static void w(String tag, String message) {
+        if (WARN >= level) {
+            write(WARN, tag, message, null);
+        }
+    }
+
+    public static void w(String tag, String message, Throwable error) {
+        if (WARN >= level) {
+            write(WARN, tag, message, error);
+        }
+    }
+
+    public static void e(String tag, String message) {
+        if (ERROR >= level) {
+            write(ERROR, tag, message, null);
+        }
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        if (ERROR >= level) {
+            write(ERROR, tag, message, error);
+        }
+    }
+
+    /**
+     * The first {@link #MAX_BODY_CHARS} characters of a body, with the full
+     * length noted when cut
+     */
+    public static String truncate(String body) {
+        if (body == null || body.length() <= MAX_BODY_CHARS) {
+            return body;
+        }
+        return body.substring(0, MAX_BODY_CHARS) + "... (" + body.length() + " chars)";
+    }
+
+    private static void write(int priority, String tag, String message, Throwable error) {
+        if (error != null) {
+            Log.println(priority, tag, message + '\n' + Log.getStackTraceString(error));
+            message = message + ": " + error;
+        } else {
+            Log.println(priority, tag, message);
+        }
+        synchronized (ringMessages) {
+            ringTimes[ringNext] = System.currentTimeMillis();
+            ringLevels[ringNext] = priority;
+            ringTags[ringNext] = tag;
+            ringMessages[ringNext] = message;
+            ringNext = (ringNext + 1) % RING_SIZE;
+            if (ringSize < RING_SIZE) {
+                ringSize++;
+            }
+        }
+    }
+
+    /**
+     * Recent log lines, oldest first
+     */
+    public static String dump() {
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        StringBuilder out = new StringBuilder();
+        synchronized (ringMessages) {
+            int start = (ringNext - ringSize + RING_SIZE) % RING_SIZE;
+            for (int i = 0; i < ringSize; i++) {
+                int index = (start + i) % RING_SIZE;
+                out.append(time.format(new Date(ringTimes[index])))
+                        .append(' ').append(LEVELS.charAt(ringLevels[index]))
+                        .append(' ').append(ringTags[index])
+                        .append(": ").append(ringMessages[index]).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    public static void clear() {
+        synchronized (ringMessages) {
+            ringNext = 0;
+            ringSize = 0;
+            Arrays.fill(ringTags, null);
+            Arrays.fill(ringMessages, null);
+        }
+    }
+}
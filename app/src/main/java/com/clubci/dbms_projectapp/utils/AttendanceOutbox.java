@@ -0,0 +1,169 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Durable queue of attendance scans waiting to reach the backend.
+ *
+ * Kept in its own database rather than {@link LocalStore}: the store is a
+ * cache that may be dropped and refetched, these rows exist nowhere else.
+ * Rows are only ever inserted and deleted. A scan is unique per event and
+ * case-folded username, so scanning the same pass twice queues it once.
+ * Signed passes keep their raw token so the backend can verify the ones
+ * this device had no key for. Call from a background thread.
+ */
+public class AttendanceOutbox extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "attendance_outbox.db";
+    private static final int DB_VERSION = 2;
+
+    private static final String TABLE_OUTBOX = "outbox";
+
+    private static AttendanceOutbox instance;
+
+    /**
+     * One queued scan
+     */
+    public static class Entry {
+        private final String eventId;
+        private final String username;
+        private final String passToken;
+        private final long scannedAt;
+
+        Entry(String eventId, String username, String passToken, long scannedAt) {
+            this.eventId = eventId;
+            this.username = username;
+            this.passToken = passToken;
+            this.scannedAt = scannedAt;
+        }
+
+        public String getEventId() {
+            return eventId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * The scanned compact pass as-is, or null for unsigned passes
+         */
+        public String getPassToken() {
+            return passToken;
+        }
+
+        public long getScannedAt() {
+            return scannedAt;
+        }
+    }
+
+    private AttendanceOutbox(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    public static synchronized AttendanceOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttendanceOutbox(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_OUTBOX + " ("
+                + "event_id TEXT NOT NULL, "
+                + "username_key TEXT NOT NULL, "
+                + "username TEXT NOT NULL, "
+                + "pass_token TEXT, "
+                + "scanned_at INTEGER NOT NULL, "
+                + "PRIMARY KEY (event_id, username_key))");
+        db.execSQL("CREATE INDEX idx_outbox_scanned ON " + TABLE_OUTBOX + " (scanned_at)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Pending scans can't be fetched again; migrate instead of dropping when the schema changes
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_OUTBOX + " ADD COLUMN pass_token TEXT");
+        }
+    }
+
+    /**
+     * @param passToken the scanned compact pass, null for unsigned passes
+     * @return false if the scan was already queued
+     */
+    public boolean add(String eventId, String username, String passToken, long scannedAt) {
+        ContentValues values = new ContentValues();
+        values.put("event_id", eventId);
+        values.put("username_key", key(username));
+        values.put("username", username);
+        values.put("pass_token", passToken);
+        values.put("scanned_at", scannedAt);
+        return getWritableDatabase().insertWithOnConflict(TABLE_OUTBOX, null, values,
+                SQLiteDatabase.CONFLICT_IGNORE) != -1;
+    }
+
+    /**
+     * Oldest queued scans of the event that has waited longest
+     */
+    public List<Entry> nextBatch(int limit) {
+        List<Entry> entries = new ArrayList<>();
+        String eventId = null;
+        try (Cursor cursor = getReadableDatabase().query(TABLE_OUTBOX, new String[] { "event_id" },
+                null, null, null, null, "scanned_at", "1")) {
+            if (cursor.moveToNext()) {
+                eventId = cursor.getString(0);
+            }
+        }
+        if (eventId == null) {
+            return entries;
+        }
+        try (Cursor cursor = getReadableDatabase().query(TABLE_OUTBOX,
+                new String[] { "username", "pass_token", "scanned_at" }, "event_id = ?", new String[] { eventId },
+                null, null, "scanned_at", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                entries.add(new Entry(eventId, cursor.getString(0), cursor.getString(1), cursor.getLong(2)));
+            }
+        }
+        return entries;
+    }
+
+    public void remove(List<Entry> entries) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Entry entry : entries) {
+                db.delete(TABLE_OUTBOX, "event_id = ? AND username_key = ?",
+                        new String[] { entry.getEventId(), key(entry.getUsername()) });
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Drop every queued scan, e.g. when the user who made them logs out
+     */
+    public void clear() {
+        getWritableDatabase().delete(TABLE_OUTBOX, null, null);
+    }
+
+    public int count() {
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + TABLE_OUTBOX, null)) {
+            return cursor.moveToNext() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private static String key(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
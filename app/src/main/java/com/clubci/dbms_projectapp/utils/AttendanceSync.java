@@ -0,0 +1,371 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Uploads the scans held in {@link AttendanceOutbox}.
+ *
+ * Scans are written to the outbox first and then drained a batch at a time,
+ * one event per batch. A batch goes to the bulk endpoint when the backend
+ * has one, otherwise as individual POSTs issued together. Failures that
+ * say nothing about the scan (no connection, 5xx, 408, 429, or a 401 until
+ * the user signs in again) leave the rows queued and retry with
+ * exponential backoff, cut short when the device gets a network back. Only
+ * a definitive 4xx drops a scan, which is then reported.
+ *
+ * The bulk endpoint is treated as all-or-nothing: a 2xx means every item
+ * was recorded, an error response that none were (the idempotency key
+ * keeps a resend from double-counting). When it rejects a batch with a
+ * 4xx the scans are posted one by one so only the bad ones are dropped.
+ *
+ * Methods and listener callbacks run on the main thread.
+ */
+public class AttendanceSync {
+
+    private static final String TAG = "AttendanceSync";
+    private static final int BATCH_SIZE = 25;
+    private static final long INITIAL_BACKOFF_MS = 2000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    public interface Listener {
+        void onPendingChanged(int pending);
+
+        void onUploaded(String eventId, String username);
+
+        /**
+         * The server refused the scan; it has been removed from the outbox
+         */
+        void onRejected(String eventId, String username, String error);
+
+        /**
+         * The backend couldn't be reached; queued scans are retried later
+         */
+        void onDeferred(long retryInMs);
+    }
+
+    private static AttendanceSync instance;
+
+    private final AttendanceOutbox outbox;
+    private final ApiClient apiClient;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private boolean draining;
+    private boolean retryScheduled;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+    private int pendingCount;
+
+    private final Runnable retryTask = () -> {
+        retryScheduled = false;
+        drain();
+    };
+
+    private AttendanceSync(Context context) {
+        this.outbox = AttendanceOutbox.getInstance(context);
+        this.apiClient = new ApiClient(context);
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    mainHandler.post(AttendanceSync.this::retryNow);
+                }
+            });
+        }
+    }
+
+    public static synchronized AttendanceSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttendanceSync(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        listener.onPendingChanged(pendingCount);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queue a scan and start uploading
+     *
+     * @param passToken the scanned compact pass, sent along so the backend
+     *                  can verify it; null for unsigned passes
+     */
+    public void enqueue(String eventId, String username, String passToken) {
+        long scannedAt = System.currentTimeMillis();
+        diskExecutor.execute(() -> {
+            if (!outbox.add(eventId, username, passToken, scannedAt)) {
+                AppLog.d(TAG, "Already queued: %s for %s", username, eventId);
+            }
+            int pending = outbox.count();
+            mainHandler.post(() -> {
+                setPending(pending);
+                drain();
+            });
+        });
+    }
+
+    /**
+     * Upload whatever is queued (e.g. left over from a previous run)
+     */
+    public void drain() {
+        if (draining || retryScheduled) {
+            return;
+        }
+        draining = true;
+        diskExecutor.execute(() -> {
+            List<AttendanceOutbox.Entry> batch = outbox.nextBatch(BATCH_SIZE);
+            int pending = outbox.count();
+            mainHandler.post(() -> {
+                setPending(pending);
+                if (batch.isEmpty()) {
+                    draining = false;
+                } else if (batch.size() > 1
+                        && ApiClient.getCapabilities().getBatchAttendance() != ServerCapabilities.Support.UNSUPPORTED) {
+                    uploadBatch(batch);
+                } else {
+                    uploadEach(batch);
+                }
+            });
+        });
+    }
+
+    /**
+     * Forget queued scans and any pending retry (on logout); the next user
+     * must not upload them under their own token. Uploads already on the
+     * wire still complete.
+     */
+    public void clear() {
+        mainHandler.removeCallbacks(retryTask);
+        retryScheduled = false;
+        backoffMs = INITIAL_BACKOFF_MS;
+        diskExecutor.execute(() -> {
+            outbox.clear();
+            mainHandler.post(() -> setPending(0));
+        });
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * True while backing off after the backend couldn't be reached
+     */
+    public boolean isWaitingToRetry() {
+        return retryScheduled;
+    }
+
+    private void retryNow() {
+        if (retryScheduled) {
+            mainHandler.removeCallbacks(retryTask);
+            retryScheduled = false;
+        }
+        backoffMs = INITIAL_BACKOFF_MS;
+        drain();
+    }
+
+    private void uploadBatch(List<AttendanceOutbox.Entry> batch) {
+        String eventId = batch.get(0).getEventId();
+        JSONObject body = new JSONObject();
+        List<String> keyParts = new ArrayList<>();
+        keyParts.add("attendance-batch");
+        keyParts.add(eventId);
+        try {
+            JSONArray attendance = new JSONArray();
+            for (AttendanceOutbox.Entry entry : batch) {
+                keyParts.add(entry.getUsername());
+                keyParts.add(String.valueOf(entry.getScannedAt()));
+                JSONObject item = new JSONObject();
+                item.put("username", entry.getUsername());
+                item.put("timestamp", entry.getScannedAt());
+                if (entry.getPassToken() != null) {
+                    item.put("passToken", entry.getPassToken());
+                }
+                attendance.put(item);
+            }
+            body.put("eventId", eventId);
+            body.put("attendance", attendance);
+        } catch (JSONException e) {
+            uploadEach(batch);
+            return;
+        }
+
+        // The same batch resent after a lost response must not double-count
+        String idempotencyKey = ApiClient.idempotencyKey(keyParts.toArray(new String[0]));
+        apiClient.postAuth("/events/" + eventId + "/attendance/batch", body, idempotencyKey,
+                new ApiClient.ApiCallback() {
+            @Override
+            public void onSuccess(String response) {
+                ApiClient.getCapabilities().setBatchAttendance(true);
+                finish(batch, new ArrayList<>(), new ArrayList<>(), false);
+            }
+
+            @Override
+            public void onError(String error) {
+                onError(ApiClient.NO_RESPONSE, error);
+            }
+
+            @Override
+            public void onError(int status, String error) {
+                if (isTransient(status)) {
+                    finish(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), true);
+                } else if (ApiClient.isMissingEndpoint(status)) {
+                    AppLog.w(TAG, "Batch endpoint unavailable (" + status + "), posting scans individually");
+                    ApiClient.getCapabilities().setBatchAttendance(false);
+                    uploadEach(batch);
+                } else {
+                    // Doesn't say which item was refused; let the single POSTs find out
+                    AppLog.w(TAG, "Batch rejected (" + status + " " + error + "), posting scans individually");
+                    uploadEach(batch);
+                }
+            }
+        });
+    }
+
+    /**
+     * All POSTs of the batch are in flight at once; results are applied together
+     */
+    private void uploadEach(List<AttendanceOutbox.Entry> batch) {
+        List<AttendanceOutbox.Entry> uploaded = new ArrayList<>();
+        List<AttendanceOutbox.Entry> rejected = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        final int[] remaining = { batch.size() };
+        final boolean[] unreachable = new boolean[1];
+
+        for (AttendanceOutbox.Entry entry : batch) {
+            post(entry, new ApiClient.ApiCallback() {
+                @Override
+                public void onSuccess(String response) {
+                    uploaded.add(entry);
+                    done();
+                }
+
+                @Override
+                public void onError(String error) {
+                    onError(ApiClient.NO_RESPONSE, error);
+                }
+
+                @Override
+                public void onError(int status, String error) {
+                    if (isTransient(status)) {
+                        unreachable[0] = true;
+                    } else {
+                        rejected.add(entry);
+                        errors.add(error);
+                    }
+                    done();
+                }
+
+                private void done() {
+                    if (--remaining[0] == 0) {
+                        finish(uploaded, rejected, errors, unreachable[0]);
+                    }
+                }
+            });
+        }
+    }
+
+    private void post(AttendanceOutbox.Entry entry, ApiClient.ApiCallback callback) {
+        JSONObject attendanceData = new JSONObject();
+        try {
+            attendanceData.put("username", entry.getUsername());
+            attendanceData.put("eventId", entry.getEventId());
+            attendanceData.put("timestamp", entry.getScannedAt());
+            if (entry.getPassToken() != null) {
+                attendanceData.put("passToken", entry.getPassToken());
+            }
+        } catch (JSONException e) {
+            // Can never be sent, so don't keep it queued
+            callback.onError(HttpURLConnection.HTTP_BAD_REQUEST, "Error creating request");
+            return;
+        }
+        apiClient.postAttendance(entry.getEventId(), entry.getUsername(), entry.getScannedAt(), attendanceData,
+                callback);
+    }
+
+    private void finish(List<AttendanceOutbox.Entry> uploaded, List<AttendanceOutbox.Entry> rejected,
+            List<String> errors, boolean unreachable) {
+        List<AttendanceOutbox.Entry> done = new ArrayList<>(uploaded);
+        done.addAll(rejected);
+        diskExecutor.execute(() -> {
+            outbox.remove(done);
+            int pending = outbox.count();
+            mainHandler.post(() -> {
+                draining = false;
+                setPending(pending);
+                for (AttendanceOutbox.Entry entry : uploaded) {
+                    for (Listener listener : new ArrayList<>(listeners)) {
+                        listener.onUploaded(entry.getEventId(), entry.getUsername());
+                    }
+                }
+                for (int i = 0; i < rejected.size(); i++) {
+                    AttendanceOutbox.Entry entry = rejected.get(i);
+                    for (Listener listener : new ArrayList<>(listeners)) {
+                        listener.onRejected(entry.getEventId(), entry.getUsername(), errors.get(i));
+                    }
+                }
+
+                if (unreachable) {
+                    scheduleRetry();
+                } else {
+                    backoffMs = INITIAL_BACKOFF_MS;
+                    drain();
+                }
+            });
+        });
+    }
+
+    private void scheduleRetry() {
+        long delay = backoffMs;
+        backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        retryScheduled = true;
+        mainHandler.postDelayed(retryTask, delay);
+        AppLog.d(TAG, pendingCount + " scans pending, retrying in " + delay + "ms");
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onDeferred(delay);
+        }
+    }
+
+    private void setPending(int pending) {
+        if (pending != pendingCount) {
+            pendingCount = pending;
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onPendingChanged(pending);
+            }
+        }
+    }
+
+    /**
+     * Failures that say nothing about the scan itself, so it stays queued
+     */
+    private static boolean isTransient(int status) {
+        return status == ApiClient.NO_RESPONSE
+                || status == HttpURLConnection.HTTP_UNAUTHORIZED
+                || status == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+                || status == 429 // Too Many Requests
+                || status >= 500 && status != HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+    }
+}
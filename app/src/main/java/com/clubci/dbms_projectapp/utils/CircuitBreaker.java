@@ -0,0 +1,111 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.os.SystemClock;
+
+import java.util.Locale;
+
+/**
+ * Fails requests to a host fast while it is down.
+ *
+ * After failureThreshold consecutive failures (network errors or 5xx) the
+ * breaker opens and requests are rejected without touching the network.
+ * Once openMs has passed it half-opens and lets a single probe through:
+ * success closes it, failure opens it again.
+ *
+ * The state is published as the gauge "breaker.state host"
+ * (0 closed, 1 open, 2 half-open).
+ */
+public class CircuitBreaker {
+
+    private static final String TAG = "CircuitBreaker";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String host;
+    private final int failureThreshold;
+    private final long openMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+    private long probeStartedAt;
+
+    public CircuitBreaker(String host, int failureThreshold, long openMs) {
+        this.host = host;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        Metrics.gauge("breaker.state " + host, State.CLOSED.ordinal());
+    }
+
+    /**
+     * Whether a request may go out now. In the half-open state only one
+     * probe is allowed at a time; a probe that never reports back is
+     * replaced after openMs.
+     */
+    public synchronized boolean allowRequest() {
+        long now = SystemClock.elapsedRealtime();
+        if (state == State.OPEN) {
+            if (now - openedAt < openMs) {
+                return false;
+            }
+            setState(State.HALF_OPEN);
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing && now - probeStartedAt < openMs) {
+                return false;
+            }
+            probing = true;
+            probeStartedAt = now;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probing = false;
+        setState(State.CLOSED);
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probing = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            openedAt = SystemClock.elapsedRealtime();
+            setState(State.OPEN);
+        }
+    }
+
+    /**
+     * The request let through ended without telling anything about the host
+     * (e.g. it failed on the client): free the probe slot, keep the state
+     */
+    public synchronized void release() {
+        probing = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getSummary() {
+        return String.format(Locale.US, "%s: %s, %d consecutive failures", host, state, consecutiveFailures);
+    }
+
+    private void setState(State newState) {
+        if (state == newState) {
+            return;
+        }
+        state = newState;
+        Metrics.gauge("breaker.state " + host, newState.ordinal());
+        if (newState == State.OPEN) {
+            Metrics.counter("breaker.opened " + host).increment();
+            AppLog.w(TAG, "Circuit open for " + host + " after " + consecutiveFailures + " failures");
+        } else {
+            AppLog.i(TAG, "Circuit " + newState + " for " + host);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.clubci.dbms_projectapp.utils;
+
+/**
+ * Immutable snapshot of transport connection usage. Idle and reuse counts
+ * are estimates where the transport can't observe its pool (see
+ * {@link UrlConnectionTransport}).
+ */
+public class ConnectionPoolStats {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final long totalRequests;
+    private final long estimatedReuses;
+    private final String protocol;
+
+    public ConnectionPoolStats(int activeConnections, int idleConnections, long totalRequests,
+            long estimatedReuses, String protocol) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalRequests = totalRequests;
+        this.estimatedReuses = estimatedReuses;
+        this.protocol = protocol;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    /**
+     * Requests expected to have found an idle pooled connection
+     */
+    public long getEstimatedReuses() {
+        return estimatedReuses;
+    }
+
+    /**
+     * Last negotiated protocol, e.g. "http/1.1" or "h2"
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Estimated fraction of requests served on an already open connection (0..1)
+     */
+    public double getEstimatedReuseRatio() {
+        if (totalRequests == 0) {
+            return 0.0;
+        }
+        return (double) estimatedReuses / totalRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + activeConnections
+                + ", idle=" + idleConnections
+                + ", requests=" + totalRequests
+                + ", reused~" + estimatedReuses
+                + ", reuseRatio~" + String.format("%.2f", getEstimatedReuseRatio())
+                + ", protocol=" + protocol;
+    }
+}
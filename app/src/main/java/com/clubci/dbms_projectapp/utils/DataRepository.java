@@ -0,0 +1,377 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.clubci.dbms_projectapp.models.Event;
+import com.clubci.dbms_projectapp.models.Payment;
+import com.clubci.dbms_projectapp.models.Registration;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sits between the screens and {@link ApiClient}: cached rows from
+ * {@link LocalStore} are delivered first, then the network copy is fetched,
+ * written back and delivered only if it differs from what was shown;
+ * otherwise the listener just hears that the cached copy is current.
+ *
+ * Collections with a delta sync endpoint can instead be kept current with
+ * sync calls, which download only the rows changed since the last sync
+ * (see {@link SyncDelta}) and merge them into the store.
+ *
+ * Listener callbacks run on the main thread. Loads return a
+ * {@link RequestHandle}; once it is cancelled the listener hears nothing more.
+ */
+public class DataRepository {
+
+    public interface Listener<T> {
+        /**
+         * @param fromCache true for the local copy, false for revalidated data
+         */
+        void onData(T data, boolean fromCache);
+
+        /**
+         * Revalidation finished and the cached copy already shown is current
+         */
+        void onUnchanged();
+
+        void onError(String error);
+    }
+
+    private interface CacheReader<T> {
+        T read();
+    }
+
+    private interface CacheWriter<T> {
+        boolean write(T data);
+    }
+
+    /**
+     * Full snapshot load used when the server has no delta endpoint
+     */
+    private interface SnapshotLoader<T> {
+        RequestHandle load(Listener<T> listener);
+    }
+
+    private static final String TAG = "DataRepository";
+
+    private static DataRepository instance;
+
+    private final LocalStore store;
+    private final ApiClient apiClient;
+    private final PassWallet passWallet;
+    // One thread keeps reads ordered before the writes of the same request
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DataRepository(Context context) {
+        this.store = LocalStore.getInstance(context);
+        this.apiClient = new ApiClient(context);
+        this.passWallet = PassWallet.getInstance(context);
+    }
+
+    public static synchronized DataRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new DataRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Event catalogue from the local store only; the network side is paged
+     * by {@link EventPager}, which reports back through {@link #saveEvents}.
+     */
+    public void getCachedEvents(Listener<List<Event>> listener) {
+        diskExecutor.execute(() -> {
+            List<Event> events = store.getEvents();
+            mainHandler.post(() -> listener.onData(events, true));
+        });
+    }
+
+    /**
+     * Persist events loaded from the network
+     *
+     * @param complete true when the list is the whole catalogue, so stale
+     *                 rows can be pruned
+     */
+    public void saveEvents(List<Event> events, boolean complete) {
+        diskExecutor.execute(() -> store.saveEvents(events, complete));
+    }
+
+    public RequestHandle loadEvent(String eventId, Listener<Event> listener) {
+        return load(() -> store.getEvent(eventId),
+                "/events/" + eventId, ModelParsers.EVENT,
+                store::saveEvent,
+                ApiClient.Priority.NORMAL, listener);
+    }
+
+    public RequestHandle loadUserRegistrations(String username, Listener<List<Registration>> listener) {
+        return load(() -> nonEmptyOrNull(store.getRegistrationsForUser(username)),
+                "/events/user/" + username + "/registrations", ModelParsers.REGISTRATION_LIST,
+                registrations -> {
+                    // Keep the pre-rendered passes in step with every registration sync
+                    passWallet.sync(username, registrations);
+                    return store.replaceRegistrationsForUser(username, registrations);
+                },
+                ApiClient.Priority.NORMAL, listener);
+    }
+
+    public RequestHandle loadEventRegistrations(String eventId, Listener<List<Registration>> listener) {
+        return loadEventRegistrations(eventId, ApiClient.Priority.NORMAL, listener);
+    }
+
+    /**
+     * @param priority LOW for refreshes nobody is waiting on
+     */
+    public RequestHandle loadEventRegistrations(String eventId, ApiClient.Priority priority,
+            Listener<List<Registration>> listener) {
+        return load(() -> nonEmptyOrNull(store.getRegistrationsForEvent(eventId)),
+                "/events/" + eventId + "/registrations", ModelParsers.REGISTRATION_LIST,
+                registrations -> store.replaceRegistrationsForEvent(eventId, registrations),
+                priority, listener);
+    }
+
+    /**
+     * Bring an event's registrations up to date with the delta sync
+     * endpoint: only changes since the last sync are downloaded, merged into
+     * the store, and the merged list delivered. Cheap enough to poll during a
+     * live event. Falls back to {@link #loadEventRegistrations} on servers
+     * without the endpoint.
+     *
+     * @param changesOnly true when the caller already shows the list: the
+     *                    cached copy isn't read and the list is delivered
+     *                    only if the sync changed it
+     */
+    public RequestHandle syncEventRegistrations(String eventId, boolean changesOnly, ApiClient.Priority priority,
+            Listener<List<Registration>> listener) {
+        String endpoint = "/events/" + eventId + "/registrations";
+        if (ApiClient.getCapabilities().getDeltaSync() == ServerCapabilities.Support.UNSUPPORTED) {
+            return loadEventRegistrations(eventId, priority, listener);
+        }
+        return sync(() -> store.getRegistrationsForEvent(eventId),
+                () -> store.getRegistrationWatermark(eventId),
+                endpoint + "/changes", ModelParsers.REGISTRATION_CHANGES,
+                delta -> store.applyRegistrationChanges(eventId, delta),
+                snapshotListener -> load(() -> null, endpoint, ModelParsers.REGISTRATION_LIST,
+                        registrations -> store.replaceRegistrationsForEvent(eventId, registrations),
+                        priority, snapshotListener),
+                changesOnly, priority, listener);
+    }
+
+    /**
+     * Bring the stored event catalogue up to date with the delta sync
+     * endpoint, like {@link #syncEventRegistrations}. On servers without it
+     * the whole catalogue is downloaded instead.
+     */
+    public RequestHandle syncEvents(Listener<List<Event>> listener) {
+        SnapshotLoader<List<Event>> snapshot = snapshotListener -> load(() -> null, "/events/all",
+                ModelParsers.EVENT_LIST, events -> store.saveEvents(events, true),
+                ApiClient.Priority.NORMAL, snapshotListener);
+        if (ApiClient.getCapabilities().getDeltaSync() == ServerCapabilities.Support.UNSUPPORTED) {
+            return snapshot.load(listener);
+        }
+        return sync(store::getEvents, store::getEventWatermark,
+                "/events/all/changes", ModelParsers.EVENT_CHANGES, store::applyEventChanges,
+                snapshot, false, ApiClient.Priority.NORMAL, listener);
+    }
+
+    /**
+     * Keep a local record of a payment made on this device
+     */
+    public void recordPayment(Payment payment) {
+        diskExecutor.execute(() -> store.savePayment(payment));
+    }
+
+    public void getPayments(String username, Listener<List<Payment>> listener) {
+        diskExecutor.execute(() -> {
+            List<Payment> payments = store.getPaymentsForUser(username);
+            mainHandler.post(() -> listener.onData(payments, true));
+        });
+    }
+
+    /**
+     * Drop all local data (e.g. on logout)
+     */
+    public void clear() {
+        diskExecutor.execute(() -> {
+            store.clear();
+            apiClient.clearResponseCache();
+        });
+        passWallet.clear();
+    }
+
+    /**
+     * Stale-while-revalidate: the disk read and the network request start
+     * together. The cached copy is shown unless fresh data already arrived,
+     * and fresh data is shown only when it changed the store (or nothing was
+     * cached).
+     */
+    private <T> RequestHandle load(CacheReader<T> reader, String endpoint, ApiClient.Parser<T> parser,
+            CacheWriter<T> writer, ApiClient.Priority priority, Listener<T> listener) {
+        final boolean[] cached = new boolean[1];
+        final boolean[] freshShown = new boolean[1];
+        RequestHandle handle = new RequestHandle();
+
+        diskExecutor.execute(() -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            T data = reader.read();
+            if (data == null) {
+                return;
+            }
+            cached[0] = true;
+            mainHandler.post(() -> {
+                if (!freshShown[0] && !handle.isCancelled()) {
+                    listener.onData(data, true);
+                }
+            });
+        });
+
+        RequestHandle network = apiClient.getAuth(endpoint, parser, priority, new ApiClient.TypedCallback<T>() {
+            @Override
+            public void onSuccess(T data) {
+                diskExecutor.execute(() -> {
+                    boolean changed = writer.write(data);
+                    mainHandler.post(() -> {
+                        if (!handle.isCancelled()) {
+                            if (changed || !cached[0]) {
+                                freshShown[0] = true;
+                                listener.onData(data, false);
+                            } else {
+                                listener.onUnchanged();
+                            }
+                        }
+                        handle.finish();
+                    });
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                handle.finish();
+                listener.onError(error);
+            }
+        });
+        handle.addCancelAction(network::cancel);
+        return handle;
+    }
+
+    /**
+     * Delta sync of a stored list: the cached rows are shown first (if any,
+     * and unless changesOnly), then changes since the stored watermark are
+     * requested, merged and the merged list delivered if it changed. While
+     * support for the endpoint is unknown, a response saying it doesn't exist
+     * (see {@link ApiClient#isMissingEndpoint(int)}) falls back to the
+     * snapshot load; any other error is reported and support stays unknown.
+     */
+    private <T> RequestHandle sync(CacheReader<List<T>> reader, CacheReader<String> watermarkReader,
+            String changesEndpoint, ApiClient.Parser<SyncDelta<T>> parser, CacheWriter<SyncDelta<T>> writer,
+            SnapshotLoader<List<T>> snapshot, boolean changesOnly, ApiClient.Priority priority,
+            Listener<List<T>> listener) {
+        RequestHandle handle = new RequestHandle();
+
+        // The watermark is on disk, so the request waits for the cache read
+        diskExecutor.execute(() -> {
+            if (handle.isCancelled()) {
+                return;
+            }
+            List<T> cached = changesOnly ? Collections.emptyList() : reader.read();
+            String watermark = watermarkReader.read();
+            mainHandler.post(() -> {
+                if (handle.isCancelled()) {
+                    return;
+                }
+                if (!cached.isEmpty()) {
+                    listener.onData(Collections.unmodifiableList(cached), true);
+                }
+                String endpoint = watermark != null ? changesEndpoint + "?since=" + encode(watermark) : changesEndpoint;
+                handle.addCancelAction(requestChanges(handle, endpoint, parser, writer, reader, snapshot,
+                        changesOnly || !cached.isEmpty(), priority, listener)::cancel);
+            });
+        });
+        return handle;
+    }
+
+    private <T> RequestHandle requestChanges(RequestHandle handle, String endpoint,
+            ApiClient.Parser<SyncDelta<T>> parser, CacheWriter<SyncDelta<T>> writer, CacheReader<List<T>> reader,
+            SnapshotLoader<List<T>> snapshot, boolean shown, ApiClient.Priority priority,
+            Listener<List<T>> listener) {
+        return apiClient.getAuth(endpoint, parser, priority, new ApiClient.TypedCallback<SyncDelta<T>>() {
+            @Override
+            public void onSuccess(SyncDelta<T> delta) {
+                ApiClient.getCapabilities().setDeltaSync(true);
+                Metrics.histogram("sync.rows " + Metrics.endpointName("GET", endpoint), "")
+                        .record(delta.getChanges().size() + delta.getDeletedIds().size());
+                diskExecutor.execute(() -> {
+                    boolean changed = writer.write(delta);
+                    List<T> merged = changed || !shown ? reader.read() : null;
+                    mainHandler.post(() -> {
+                        if (!handle.isCancelled()) {
+                            if (merged != null) {
+                                listener.onData(Collections.unmodifiableList(merged), false);
+                            } else {
+                                listener.onUnchanged();
+                            }
+                        }
+                        handle.finish();
+                    });
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                onError(ApiClient.NO_RESPONSE, error);
+            }
+
+            @Override
+            public void onError(int status, String error) {
+                if (ApiClient.getCapabilities().getDeltaSync() != ServerCapabilities.Support.UNKNOWN
+                        || !ApiClient.isMissingEndpoint(status)) {
+                    handle.finish();
+                    listener.onError(error);
+                    return;
+                }
+                AppLog.d(TAG, "Delta sync endpoint missing (%d), loading a full snapshot", status);
+                handle.addCancelAction(snapshot.load(new Listener<List<T>>() {
+                    @Override
+                    public void onData(List<T> data, boolean fromCache) {
+                        ApiClient.getCapabilities().setDeltaSync(false);
+                        handle.finish();
+                        listener.onData(data, fromCache);
+                    }
+
+                    @Override
+                    public void onUnchanged() {
+                        handle.finish();
+                        listener.onUnchanged();
+                    }
+
+                    @Override
+                    public void onError(String error2) {
+                        handle.finish();
+                        listener.onError(error2);
+                    }
+                })::cancel);
+            }
+        });
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+
+    private static <T> List<T> nonEmptyOrNull(List<T> list) {
+        return list.isEmpty() ? null : Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,283 @@
+package com.clubci.dbms_projectapp.utils;
+
+import com.clubci.dbms_projectapp.models.Event;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the event catalogue page by page with offset/limit requests.
+ *
+ * With activeFirst enabled, UPCOMING/ONGOING events are requested first
+ * (status filter) and the rest only stream in once the user scrolls past
+ * them. The rest is paged without a status filter, so events of any other
+ * status (COMPLETED, CANCELLED, none) show up too; active events seen again
+ * there are dropped as duplicates.
+ *
+ * Backends that ignore the paging parameters still work. A response longer
+ * than a page, or a page at offset > 0 that starts with an event already
+ * seen, means the whole list was sent: it is split locally and the rest is
+ * released page by page from memory instead of being requested again.
+ *
+ * All methods must be called on the main thread.
+ */
+public class EventPager {
+
+    public interface Listener {
+        void onEventsLoaded(List<Event> events, boolean hasMore);
+
+        void onError(String error);
+    }
+
+    private static final String ENDPOINT = "/events/all";
+    private static final String ACTIVE_STATUSES = "UPCOMING,ONGOING";
+
+    private enum Phase {
+        ACTIVE, ARCHIVE, ALL
+    }
+
+    /**
+     * Where pages come from; a seam for tests
+     */
+    interface PageSource {
+        RequestHandle fetch(String endpoint, ApiClient.TypedCallback<List<Event>> callback);
+    }
+
+    private final PageSource source;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final boolean activeFirst;
+    private final Listener listener;
+
+    private final List<Event> loaded = new ArrayList<>();
+    private final Set<String> loadedIds = new HashSet<>();
+    private final List<Event> localBuffer = new ArrayList<>();
+    // Ids the server returned in the current phase, filtered out or not
+    private final Set<String> seenIds = new HashSet<>();
+    private Phase phase;
+    private int offset;
+    private boolean pagingIgnored;
+    private boolean loading;
+    private boolean endReached;
+    private int generation;
+    private RequestHandle pending;
+
+    public EventPager(ApiClient apiClient, int pageSize, int prefetchDistance, boolean activeFirst,
+            Listener listener) {
+        this((endpoint, callback) -> apiClient.getAuth(endpoint, ModelParsers.EVENT_LIST, callback),
+                pageSize, prefetchDistance, activeFirst, listener);
+    }
+
+    EventPager(PageSource source, int pageSize, int prefetchDistance, boolean activeFirst, Listener listener) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.activeFirst = activeFirst;
+        this.listener = listener;
+        this.phase = activeFirst ? Phase.ACTIVE : Phase.ALL;
+    }
+
+    /**
+     * Drop everything and load the first page again
+     */
+    public void refresh() {
+        cancel();
+        generation++;
+        loaded.clear();
+        loadedIds.clear();
+        localBuffer.clear();
+        seenIds.clear();
+        phase = activeFirst ? Phase.ACTIVE : Phase.ALL;
+        offset = 0;
+        pagingIgnored = false;
+        loading = false;
+        endReached = false;
+        loadNextPage();
+    }
+
+    /**
+     * Report scroll position; the next page is requested once the last
+     * visible item is within the prefetch window of the end of the list.
+     */
+    public void onScrolled(int lastVisiblePosition) {
+        if (lastVisiblePosition >= loaded.size() - prefetchDistance) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Drop the page request in progress, e.g. when the list's view goes away
+     */
+    public void cancel() {
+        if (pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+        loading = false;
+    }
+
+    public boolean hasMore() {
+        return !endReached;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    private void loadNextPage() {
+        if (loading || endReached) {
+            return;
+        }
+
+        if (!localBuffer.isEmpty()) {
+            releaseFromBuffer();
+            return;
+        }
+
+        loading = true;
+        final int requestGeneration = generation;
+        pending = source.fetch(buildEndpoint(), new ApiClient.TypedCallback<List<Event>>() {
+            @Override
+            public void onSuccess(List<Event> items) {
+                if (requestGeneration != generation) {
+                    return; // superseded by refresh()
+                }
+                pending = null;
+                loading = false;
+                handlePage(items);
+            }
+
+            @Override
+            public void onError(String error) {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                pending = null;
+                loading = false;
+                listener.onError(error);
+            }
+        });
+    }
+
+    private String buildEndpoint() {
+        if (phase == Phase.ACTIVE) {
+            return ENDPOINT + ApiClient.buildQueryString(
+                    "offset", String.valueOf(offset), "limit", String.valueOf(pageSize), "status", ACTIVE_STATUSES);
+        }
+        return ENDPOINT + ApiClient.buildQueryString(
+                "offset", String.valueOf(offset), "limit", String.valueOf(pageSize));
+    }
+
+    private void handlePage(List<Event> items) {
+        Phase pagePhase = phase;
+        boolean progressed;
+        if (pagingIgnored || items.size() > pageSize || repeatsSeenEvents(items)) {
+            // Server ignored paging and sent the whole (possibly status filtered) list
+            pagingIgnored = true;
+            splitLocally(items);
+            progressed = true;
+        } else {
+            int newIds = 0;
+            for (Event event : items) {
+                if (event.getEventId() == null || seenIds.add(event.getEventId())) {
+                    newIds++;
+                }
+                if (matchesPhase(event)) {
+                    add(event);
+                }
+            }
+            progressed = newIds > 0;
+            offset += items.size();
+            if (items.size() < pageSize) {
+                if (phase == Phase.ACTIVE) {
+                    startArchive();
+                } else {
+                    endReached = true;
+                }
+            }
+        }
+
+        notifyLoaded();
+
+        // Keep the first screen filled when the active set is short, as long
+        // as pages keep bringing events we haven't seen
+        if (!endReached && loaded.size() < pageSize && (progressed || phase != pagePhase)) {
+            loadNextPage();
+        }
+    }
+
+    private void splitLocally(List<Event> items) {
+        if (phase == Phase.ACTIVE) {
+            for (Event event : items) {
+                if (isActive(event)) {
+                    add(event);
+                } else {
+                    localBuffer.add(event);
+                }
+            }
+            if (localBuffer.isEmpty()) {
+                // Only active events came back, so the status filter was applied: fetch the rest once
+                startArchive();
+            } else {
+                phase = Phase.ARCHIVE;
+            }
+            return;
+        }
+        for (Event event : items) {
+            add(event);
+        }
+        endReached = localBuffer.isEmpty();
+    }
+
+    private void startArchive() {
+        phase = Phase.ARCHIVE;
+        offset = 0;
+        seenIds.clear();
+    }
+
+    /**
+     * A later page that starts with an event this phase already returned
+     * means the server ignored the offset
+     */
+    private boolean repeatsSeenEvents(List<Event> items) {
+        if (offset == 0 || items.isEmpty()) {
+            return false;
+        }
+        String firstId = items.get(0).getEventId();
+        return firstId != null && seenIds.contains(firstId);
+    }
+
+    private void releaseFromBuffer() {
+        int count = Math.min(pageSize, localBuffer.size());
+        for (int i = 0; i < count; i++) {
+            add(localBuffer.remove(0));
+        }
+        endReached = localBuffer.isEmpty();
+        notifyLoaded();
+    }
+
+    private boolean matchesPhase(Event event) {
+        // The archive is unfiltered; active events in it are already loaded and deduped by add()
+        return phase != Phase.ACTIVE || isActive(event);
+    }
+
+    private static boolean isActive(Event event) {
+        String status = event.getStatus();
+        // Events without a status are shown early rather than hidden
+        return status == null || status.isEmpty()
+                || "UPCOMING".equalsIgnoreCase(status) || "ONGOING".equalsIgnoreCase(status);
+    }
+
+    private void add(Event event) {
+        String id = event.getEventId();
+        if (id == null || loadedIds.add(id)) {
+            loaded.add(event);
+        }
+    }
+
+    private void notifyLoaded() {
+        listener.onEventsLoaded(new ArrayList<>(loaded), !endReached);
+    }
+}
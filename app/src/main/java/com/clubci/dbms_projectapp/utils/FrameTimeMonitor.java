@@ -0,0 +1,126 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.view.Choreographer;
+
+import com.clubci.dbms_projectapp.BuildConfig;
+
+/**
+ * Measures frame intervals on the main thread with Choreographer so jank on
+ * a screen can be compared before and after a change.
+ *
+ * Call start() in onResume and stop() in onPause; stop() logs a summary.
+ * Frame intervals are also recorded in {@link Metrics} as "ui.frame label".
+ *
+ * A frame callback is posted every frame while running, so monitors only
+ * start in debug builds or after {@link #setEnabled(boolean)} (the switch on
+ * the diagnostics screen).
+ */
+public class FrameTimeMonitor implements Choreographer.FrameCallback {
+
+    private static final String TAG = "FrameTimeMonitor";
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L; // 60 Hz
+
+    private static volatile boolean enabled = BuildConfig.DEBUG;
+
+    private final String label;
+    private final Metrics.Timer frameTimer;
+    private final Metrics.Counter jankCounter;
+    private boolean running;
+    private long lastFrameNanos;
+    private int frameCount;
+    private int jankyFrames;
+    private long worstFrameNanos;
+    private long totalFrameNanos;
+
+    public FrameTimeMonitor(String label) {
+        this.label = label;
+        this.frameTimer = Metrics.timer("ui.frame " + label);
+        this.jankCounter = Metrics.counter("ui.janky_frames " + label);
+    }
+
+    /**
+     * Turn monitoring on or off for this process; monitors already running
+     * keep going until their next stop()
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start collecting frame times if monitoring is enabled (main thread only)
+     */
+    public void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        lastFrameNanos = 0;
+        frameCount = 0;
+        jankyFrames = 0;
+        worstFrameNanos = 0;
+        totalFrameNanos = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Stop collecting and log the summary (main thread only)
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        AppLog.i(TAG, getSummary());
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (lastFrameNanos > 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            frameCount++;
+            totalFrameNanos += interval;
+            frameTimer.record(interval);
+            if (interval > FRAME_BUDGET_NANOS * 3 / 2) {
+                // At least one vsync was missed
+                jankyFrames++;
+                jankCounter.increment();
+            }
+            if (interval > worstFrameNanos) {
+                worstFrameNanos = interval;
+            }
+        }
+        lastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getJankyFrames() {
+        return jankyFrames;
+    }
+
+    public double getWorstFrameMs() {
+        return worstFrameNanos / 1_000_000.0;
+    }
+
+    public double getAverageFrameMs() {
+        return frameCount == 0 ? 0.0 : totalFrameNanos / 1_000_000.0 / frameCount;
+    }
+
+    public String getSummary() {
+        return label + ": frames=" + frameCount
+                + ", janky=" + jankyFrames
+                + ", avg=" + String.format("%.1f", getAverageFrameMs()) + "ms"
+                + ", worst=" + String.format("%.1f", getWorstFrameMs()) + "ms";
+    }
+}
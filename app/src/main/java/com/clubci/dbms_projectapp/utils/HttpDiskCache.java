@@ -0,0 +1,302 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Bounded on-disk cache of GET response bodies with their validators
+ * (ETag / Last-Modified) for conditional requests.
+ *
+ * Entries are keyed by endpoint + a hash of the user token so one user never
+ * sees another user's cached data. When the total size exceeds the limit the
+ * least recently used entries are deleted. Bodies are streamed to a temp
+ * file first; temp files left by a process that died mid-download are
+ * deleted when the cache is opened, so open one instance per directory.
+ */
+public class HttpDiskCache {
+
+    private static final String SUFFIX = ".entry";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    private long currentBytes;
+
+    public static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final File file;
+
+        Entry(String etag, String lastModified, File file) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.file = file;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Open the cached body for streaming reads
+         */
+        public InputStream openBody() throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            in.readUTF();
+            in.readUTF();
+            return in;
+        }
+
+        /**
+         * Read the whole cached body
+         */
+        public byte[] getBody() throws IOException {
+            try (InputStream in = openBody()) {
+                return readAll(in);
+            }
+        }
+    }
+
+    /**
+     * Streaming writer for a new entry; nothing is visible until commit()
+     */
+    public class Writer {
+        private final String key;
+        private final File tmp;
+        private final OutputStream out;
+        private boolean done;
+
+        Writer(String key, String etag, String lastModified) throws IOException {
+            this.key = key;
+            this.tmp = new File(directory, key + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            data.writeUTF(etag != null ? etag : "");
+            data.writeUTF(lastModified != null ? lastModified : "");
+            this.out = data;
+        }
+
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+        }
+
+        /**
+         * Wrap a source stream so every byte read from it is also written here
+         */
+        public InputStream tee(InputStream source) {
+            return new FilterInputStream(source) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        out.write(b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        out.write(buffer, offset, read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        public void commit() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                tmp.delete();
+                return;
+            }
+            install(key, tmp);
+        }
+
+        public void abort() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            tmp.delete();
+        }
+    }
+
+    public HttpDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        // No writer is open yet, so these are leftovers nobody will commit
+        File[] leftovers = directory.listFiles((dir, name) -> name.endsWith(TMP_SUFFIX));
+        if (leftovers != null) {
+            for (File file : leftovers) {
+                file.delete();
+            }
+        }
+        File[] files = listEntries();
+        for (File file : files) {
+            currentBytes += file.length();
+        }
+    }
+
+    /**
+     * Build the cache key for an endpoint and the current user token
+     */
+    public static String key(String endpoint, String token) {
+        return sha256(endpoint + "\n" + sha256(token != null ? token : ""));
+    }
+
+    /**
+     * Get cached entry, or null when missing or unreadable
+     */
+    public synchronized Entry get(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            // Touch for LRU ordering
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(etag.isEmpty() ? null : etag,
+                    lastModified.isEmpty() ? null : lastModified, file);
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Store a response body with its validators
+     */
+    public void put(String key, String etag, String lastModified, byte[] body) {
+        try {
+            Writer writer = edit(key, etag, lastModified);
+            writer.write(body, 0, body.length);
+            writer.commit();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Start writing an entry whose body is streamed in
+     */
+    public Writer edit(String key, String etag, String lastModified) throws IOException {
+        return new Writer(key, etag, lastModified);
+    }
+
+    private synchronized void install(String key, File tmp) {
+        if (tmp.length() > maxBytes) {
+            tmp.delete();
+            return;
+        }
+        File file = new File(directory, key + SUFFIX);
+        if (file.exists()) {
+            currentBytes -= file.length();
+            file.delete();
+        }
+        if (tmp.renameTo(file)) {
+            currentBytes += file.length();
+        } else {
+            tmp.delete();
+        }
+        trimToSize();
+    }
+
+    public synchronized void remove(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (file.exists()) {
+            currentBytes -= file.length();
+            file.delete();
+        }
+    }
+
+    /**
+     * Delete all entries (e.g. on logout)
+     */
+    public synchronized void clear() {
+        for (File file : listEntries()) {
+            file.delete();
+        }
+        currentBytes = 0;
+    }
+
+    public synchronized long size() {
+        return currentBytes;
+    }
+
+    private void trimToSize() {
+        if (currentBytes <= maxBytes) {
+            return;
+        }
+        File[] files = listEntries();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (currentBytes <= maxBytes) {
+                break;
+            }
+            currentBytes -= file.length();
+            file.delete();
+        }
+    }
+
+    private File[] listEntries() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        return files != null ? files : new File[0];
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return String.valueOf(value.hashCode());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pluggable HTTP layer used by {@link ApiClient}.
+ * Implementations own connection setup and reuse; ApiClient only deals with
+ * requests, responses and callbacks.
+ */
+public interface HttpTransport {
+
+    /**
+     * Execute a request and return the response. The caller must close the
+     * response so the underlying connection can be reused.
+     */
+    Response execute(Request request) throws IOException;
+
+    /**
+     * Snapshot of connection pool usage for diagnostics
+     */
+    ConnectionPoolStats getStats();
+
+    class Request {
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private byte[] body;
+
+        public Request(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public Request header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public Request body(byte[] body) {
+            this.body = body;
+            return this;
+        }
+    }
+
+    class Response implements Closeable {
+        private final int code;
+        private final Map<String, List<String>> headers;
+        private final InputStream body;
+        private final Runnable onClose;
+        private boolean closed;
+
+        public Response(int code, Map<String, List<String>> headers, InputStream body, Runnable onClose) {
+            this.code = code;
+            this.headers = headers != null ? headers : Collections.emptyMap();
+            this.body = body;
+            this.onClose = onClose;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public boolean isSuccessful() {
+            return code >= 200 && code < 300;
+        }
+
+        /**
+         * First value of a response header (case-insensitive), or null
+         */
+        public String getHeader(String name) {
+            for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+                if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name)
+                        && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    return entry.getValue().get(0);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Response body stream (error stream for non-2xx codes). May be null.
+         */
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (body != null) {
+                try {
+                    // Drain what is left so the connection can go back to the pool
+                    byte[] skip = new byte[1024];
+                    while (body.read(skip) != -1) {
+                        // discard
+                    }
+                } catch (IOException ignored) {
+                }
+                try {
+                    body.close();
+                } catch (IOException ignored) {
+                }
+            }
+            if (onClose != null) {
+                onClose.run();
+            }
+        }
+    }
+}
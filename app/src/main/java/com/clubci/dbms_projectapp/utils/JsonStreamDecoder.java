@@ -0,0 +1,135 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Token-based JSON decoding straight off a response stream.
+ * Array elements are handed out one model at a time, so a large list never
+ * exists as a String or JSONArray in memory.
+ *
+ * Syntax errors and unexpected tokens are thrown as
+ * {@link ResponseParseException}; other IOExceptions come from the stream.
+ */
+public class JsonStreamDecoder {
+
+    /**
+     * Reads one element (usually a JSON object) into a model
+     */
+    public interface ItemReader<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Receives decoded elements in order
+     */
+    public interface ItemHandler<T> {
+        void onItem(T item);
+    }
+
+    /**
+     * Decode a top-level JSON array, emitting each element as it is read
+     *
+     * @return number of elements decoded
+     */
+    public static <T> int readArray(InputStream in, ItemReader<T> itemReader, ItemHandler<T> handler)
+            throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            int count = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                handler.onItem(itemReader.read(reader));
+                count++;
+            }
+            reader.endArray();
+            return count;
+        } catch (IllegalStateException | MalformedJsonException e) {
+            // JsonReader reports unexpected tokens as IllegalStateException
+            throw new ResponseParseException("Malformed JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decode a single top-level JSON value
+     */
+    public static <T> T readValue(InputStream in, ItemReader<T> itemReader) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            return itemReader.read(reader);
+        } catch (IllegalStateException | MalformedJsonException e) {
+            throw new ResponseParseException("Malformed JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Next value as a string (numbers and booleans included), or null for JSON null
+     */
+    public static String nextStringOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * Next value as an int, or the default for null / non-numeric values
+     */
+    public static int nextInt(JsonReader reader, int defaultValue) throws IOException {
+        String value = nextStringOrNull(reader);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Next value as a double, or the default for null / non-numeric values
+     */
+    public static double nextDouble(JsonReader reader, double defaultValue) throws IOException {
+        String value = nextStringOrNull(reader);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Next value as an epoch timestamp, or null if it is not numeric
+     */
+    public static Long nextTimestamp(JsonReader reader) throws IOException {
+        String value = nextStringOrNull(reader);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // It's a date string
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Base64;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Seals small secrets for storage with an AES key kept in the Android
+ * Keystore. The key never leaves the Keystore, so a copy of the app's
+ * SharedPreferences (backup, rooted device dump) doesn't reveal the secret.
+ *
+ * Each call goes to the Keystore service; avoid the main thread.
+ */
+final class KeystoreCipher {
+
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int TAG_BITS = 128;
+
+    private final String alias;
+
+    KeystoreCipher(String alias) {
+        this.alias = alias;
+    }
+
+    /**
+     * @return base64 of IV length, IV and ciphertext
+     */
+    String seal(byte[] plain) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        // The Keystore picks a random IV per encryption
+        cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey());
+        byte[] iv = cipher.getIV();
+        byte[] encrypted = cipher.doFinal(plain);
+        byte[] sealed = new byte[1 + iv.length + encrypted.length];
+        sealed[0] = (byte) iv.length;
+        System.arraycopy(iv, 0, sealed, 1, iv.length);
+        System.arraycopy(encrypted, 0, sealed, 1 + iv.length, encrypted.length);
+        return Base64.encodeToString(sealed, Base64.NO_WRAP);
+    }
+
+    /**
+     * @throws GeneralSecurityException if the text wasn't sealed with this
+     *                                  device's key or was altered
+     */
+    byte[] open(String sealedText) throws GeneralSecurityException {
+        byte[] sealed;
+        try {
+            sealed = Base64.decode(sealedText, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            throw new GeneralSecurityException("Not sealed data", e);
+        }
+        int ivLength = sealed.length > 0 ? sealed[0] & 0xFF : 0;
+        if (ivLength == 0 || sealed.length <= 1 + ivLength) {
+            throw new GeneralSecurityException("Not sealed data");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, getOrCreateKey(),
+                new GCMParameterSpec(TAG_BITS, Arrays.copyOfRange(sealed, 1, 1 + ivLength)));
+        return cipher.doFinal(sealed, 1 + ivLength, sealed.length - 1 - ivLength);
+    }
+
+    private SecretKey getOrCreateKey() throws GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        try {
+            keyStore.load(null);
+        } catch (IOException e) {
+            throw new GeneralSecurityException("Keystore unavailable", e);
+        }
+        Key key = keyStore.getKey(alias, null);
+        if (key instanceof SecretKey) {
+            return (SecretKey) key;
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(alias,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+}
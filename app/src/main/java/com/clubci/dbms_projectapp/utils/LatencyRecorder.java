@@ -0,0 +1,65 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Keeps the most recent latency samples in a fixed ring buffer and reports
+ * percentiles over them. Recording never allocates, so it is safe on hot
+ * paths such as per-frame camera analysis.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private final long[] sorted;
+    private int count;
+    private int next;
+    private long total;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+        this.sorted = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        total++;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        next = 0;
+        total = 0;
+    }
+
+    /**
+     * Number of samples recorded since the last reset (not capped by capacity)
+     */
+    public synchronized long getTotalCount() {
+        return total;
+    }
+
+    /**
+     * @param percentile 0-100
+     * @return latency in milliseconds over the retained window, 0 if empty
+     */
+    public synchronized double getPercentileMs(double percentile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        index = Math.max(0, Math.min(count - 1, index));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    public String getSummary() {
+        return String.format(Locale.US, "n=%d, p50=%.1fms, p95=%.1fms",
+                getTotalCount(), getPercentileMs(50), getPercentileMs(95));
+    }
+}
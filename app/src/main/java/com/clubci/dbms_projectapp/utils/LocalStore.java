@@ -0,0 +1,561 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.clubci.dbms_projectapp.models.Event;
+import com.clubci.dbms_projectapp.models.EventPass;
+import com.clubci.dbms_projectapp.models.Payment;
+import com.clubci.dbms_projectapp.models.Registration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQLite copy of the events, registrations and payments last seen from the
+ * backend. Rows keep the model's JSON form plus the columns needed to query
+ * them, so screens can render immediately on a cold start. Metadata of the
+ * pre-rendered QR passes lives here too (see {@link PassWallet}), as do
+ * the delta sync watermarks of the synced collections (see {@link SyncDelta}).
+ *
+ * Writes compare against the stored JSON and only touch rows that changed;
+ * they return whether anything was different so callers can skip redundant
+ * UI updates. Call from a background thread.
+ */
+public class LocalStore extends SQLiteOpenHelper {
+
+    private static final String TAG = "LocalStore";
+    private static final String DB_NAME = "clubci_store.db";
+    private static final int DB_VERSION = 4;
+
+    private static final String TABLE_EVENTS = "events";
+    private static final String TABLE_REGISTRATIONS = "registrations";
+    private static final String TABLE_PAYMENTS = "payments";
+    private static final String TABLE_PASSES = "passes";
+    private static final String TABLE_SYNC = "sync_state";
+
+    // A registration cached for both the user's list and an event's list gets
+    // one row per list, each with that list's position and JSON
+    private static final String SCOPE_USER = "user";
+    private static final String SCOPE_EVENT = "event";
+
+    private static final String EVENTS_COLLECTION = "events";
+    private static final String EVENT_REGISTRATIONS_COLLECTION = "registrations/event/";
+
+    // Ordered rows compare position and content together
+    private static final String ORDERED_ROW = "position || '|' || json";
+
+    private static LocalStore instance;
+
+    private interface RowMapper<T> {
+        T map(JSONObject json) throws JSONException;
+    }
+
+    // Package-private so tests can open a store per test
+    LocalStore(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    public static synchronized LocalStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_EVENTS + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "position INTEGER NOT NULL, "
+                + "status TEXT, "
+                + "json TEXT NOT NULL)");
+        db.execSQL("CREATE TABLE " + TABLE_REGISTRATIONS + " ("
+                + "scope TEXT NOT NULL, "
+                + "id TEXT NOT NULL, "
+                + "event_id TEXT, "
+                + "username TEXT, "
+                + "position INTEGER NOT NULL, "
+                + "json TEXT NOT NULL, "
+                + "PRIMARY KEY (scope, id))");
+        db.execSQL("CREATE INDEX idx_registrations_username ON " + TABLE_REGISTRATIONS + " (scope, username)");
+        db.execSQL("CREATE INDEX idx_registrations_event ON " + TABLE_REGISTRATIONS + " (scope, event_id)");
+        db.execSQL("CREATE TABLE " + TABLE_PAYMENTS + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "event_id TEXT, "
+                + "username TEXT, "
+                + "created_at INTEGER NOT NULL, "
+                + "json TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_payments_username ON " + TABLE_PAYMENTS + " (username)");
+        db.execSQL("CREATE TABLE " + TABLE_PASSES + " ("
+                + "id TEXT PRIMARY KEY, "
+                + "username TEXT, "
+                + "created_at INTEGER NOT NULL, "
+                + "json TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_passes_username ON " + TABLE_PASSES + " (username)");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC + " ("
+                + "collection TEXT PRIMARY KEY, "
+                + "watermark TEXT NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything here can be fetched again
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EVENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_REGISTRATIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PAYMENTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PASSES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SYNC);
+        onCreate(db);
+    }
+
+    // ---------------------------------------------------------------- events
+
+    public List<Event> getEvents() {
+        return query(TABLE_EVENTS, null, null, "position", Event::fromJson);
+    }
+
+    public Event getEvent(String eventId) {
+        List<Event> events = query(TABLE_EVENTS, "id = ?", new String[] { eventId }, null, Event::fromJson);
+        return events.isEmpty() ? null : events.get(0);
+    }
+
+    /**
+     * Store events in list order. With complete set, rows missing from the
+     * list are deleted (the list is the whole catalogue).
+     *
+     * @return true if anything was inserted, updated or deleted
+     */
+    public boolean saveEvents(List<Event> events, boolean complete) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Map<String, String> existing = loadById(db, TABLE_EVENTS, ORDERED_ROW, null, null);
+            boolean changed = false;
+            for (int i = 0; i < events.size(); i++) {
+                Event event = events.get(i);
+                if (event.getEventId() == null) {
+                    continue;
+                }
+                String json = toJson(event);
+                String previous = existing.remove(event.getEventId());
+                if (json == null || (i + "|" + json).equals(previous)) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put("id", event.getEventId());
+                values.put("position", i);
+                values.put("status", event.getStatus());
+                values.put("json", json);
+                db.insertWithOnConflict(TABLE_EVENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                changed = true;
+            }
+            if (complete) {
+                changed |= deleteIds(db, TABLE_EVENTS, existing.keySet());
+            }
+            db.setTransactionSuccessful();
+            return changed;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Insert or update a single event, keeping its list position
+     */
+    public boolean saveEvent(Event event) {
+        if (event.getEventId() == null) {
+            return false;
+        }
+        String json = toJson(event);
+        if (json == null) {
+            return false;
+        }
+        SQLiteDatabase db = getWritableDatabase();
+        Map<String, String> existing = loadById(db, TABLE_EVENTS, "json", "id = ?",
+                new String[] { event.getEventId() });
+        if (json.equals(existing.get(event.getEventId()))) {
+            return false;
+        }
+        ContentValues values = new ContentValues();
+        values.put("status", event.getStatus());
+        values.put("json", json);
+        if (existing.isEmpty()) {
+            values.put("id", event.getEventId());
+            values.put("position", Integer.MAX_VALUE);
+            db.insert(TABLE_EVENTS, null, values);
+        } else {
+            db.update(TABLE_EVENTS, values, "id = ?", new String[] { event.getEventId() });
+        }
+        return true;
+    }
+
+    /**
+     * Watermark of the last event catalogue delta applied, or null before
+     * the first sync
+     */
+    public String getEventWatermark() {
+        return getWatermark(EVENTS_COLLECTION);
+    }
+
+    /**
+     * Merge a catalogue delta and advance the watermark in one transaction.
+     * Changed events keep their list position, new ones go to the end.
+     *
+     * @return true if anything was inserted, updated or deleted
+     */
+    public boolean applyEventChanges(SyncDelta<Event> delta) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean changed;
+            if (delta.isFull()) {
+                changed = saveEvents(delta.getChanges(), true);
+            } else {
+                Map<String, String> existing = loadById(db, TABLE_EVENTS, "json", null, null);
+                long position = nextPosition(db, TABLE_EVENTS, null, null);
+                changed = false;
+                for (Event event : delta.getChanges()) {
+                    String json = toJson(event);
+                    if (event.getEventId() == null || json == null
+                            || json.equals(existing.get(event.getEventId()))) {
+                        continue;
+                    }
+                    ContentValues values = new ContentValues();
+                    values.put("status", event.getStatus());
+                    values.put("json", json);
+                    if (existing.containsKey(event.getEventId())) {
+                        db.update(TABLE_EVENTS, values, "id = ?", new String[] { event.getEventId() });
+                    } else {
+                        values.put("id", event.getEventId());
+                        values.put("position", position++);
+                        db.insertWithOnConflict(TABLE_EVENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                    }
+                    existing.put(event.getEventId(), json);
+                    changed = true;
+                }
+                changed |= deleteIds(db, TABLE_EVENTS, delta.getDeletedIds());
+            }
+            setWatermark(db, EVENTS_COLLECTION, delta.getWatermark());
+            db.setTransactionSuccessful();
+            return changed;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // --------------------------------------------------------- registrations
+
+    public List<Registration> getRegistrationsForUser(String username) {
+        return query(TABLE_REGISTRATIONS, "scope = ? AND username = ?", new String[] { SCOPE_USER, username },
+                "position", Registration::fromJson);
+    }
+
+    public List<Registration> getRegistrationsForEvent(String eventId) {
+        return query(TABLE_REGISTRATIONS, "scope = ? AND event_id = ?", new String[] { SCOPE_EVENT, eventId },
+                "position", Registration::fromJson);
+    }
+
+    /**
+     * Replace all registrations of a user with the given list
+     *
+     * @return true if anything was inserted, updated or deleted
+     */
+    public boolean replaceRegistrationsForUser(String username, List<Registration> registrations) {
+        return replaceRegistrations(SCOPE_USER, "scope = ? AND username = ?", new String[] { SCOPE_USER, username },
+                registrations, null, username);
+    }
+
+    /**
+     * Replace all registrations of an event with the given list. Rows are
+     * stored under eventId whatever the items say, so they can't leak out of
+     * the selection the next replace uses.
+     *
+     * @return true if anything was inserted, updated or deleted
+     */
+    public boolean replaceRegistrationsForEvent(String eventId, List<Registration> registrations) {
+        return replaceRegistrations(SCOPE_EVENT, "scope = ? AND event_id = ?", new String[] { SCOPE_EVENT, eventId },
+                registrations, eventId, null);
+    }
+
+    private boolean replaceRegistrations(String scope, String selection, String[] args,
+            List<Registration> registrations, String scopeEventId, String defaultUsername) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            Map<String, String> existing = loadById(db, TABLE_REGISTRATIONS, ORDERED_ROW, selection, args);
+            boolean changed = false;
+            for (int i = 0; i < registrations.size(); i++) {
+                Registration registration = registrations.get(i);
+                String eventId = scopeEventId != null ? scopeEventId : registration.getEventId();
+                String username = registration.getUsername() != null ? registration.getUsername() : defaultUsername;
+                String id = registrationId(registration, eventId, username);
+                String json = toJson(registration);
+                String previous = existing.remove(id);
+                if (json == null || (i + "|" + json).equals(previous)) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put("scope", scope);
+                values.put("id", id);
+                values.put("event_id", eventId);
+                values.put("username", username);
+                values.put("position", i);
+                values.put("json", json);
+                db.insertWithOnConflict(TABLE_REGISTRATIONS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                changed = true;
+            }
+            changed |= deleteRegistrations(db, scope, existing.keySet());
+            db.setTransactionSuccessful();
+            return changed;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Watermark of the last registration delta applied for an event, or
+     * null before the first sync
+     */
+    public String getRegistrationWatermark(String eventId) {
+        return getWatermark(EVENT_REGISTRATIONS_COLLECTION + eventId);
+    }
+
+    /**
+     * Merge a delta of an event's registrations and advance the watermark in
+     * one transaction. Changed rows keep their position, new ones go to the
+     * end; tombstoned ids are deleted.
+     *
+     * @return true if anything was inserted, updated or deleted
+     */
+    public boolean applyRegistrationChanges(String eventId, SyncDelta<Registration> delta) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean changed;
+            if (delta.isFull()) {
+                changed = replaceRegistrationsForEvent(eventId, delta.getChanges());
+            } else {
+                String selection = "scope = ? AND event_id = ?";
+                String[] args = new String[] { SCOPE_EVENT, eventId };
+                Map<String, String> existing = loadById(db, TABLE_REGISTRATIONS, "json", selection, args);
+                long position = nextPosition(db, TABLE_REGISTRATIONS, selection, args);
+                changed = false;
+                for (Registration registration : delta.getChanges()) {
+                    String id = registrationId(registration, eventId, registration.getUsername());
+                    String json = toJson(registration);
+                    if (json == null || json.equals(existing.get(id))) {
+                        continue;
+                    }
+                    ContentValues values = new ContentValues();
+                    values.put("event_id", eventId);
+                    values.put("username", registration.getUsername());
+                    values.put("json", json);
+                    if (existing.containsKey(id)) {
+                        db.update(TABLE_REGISTRATIONS, values, "scope = ? AND id = ?",
+                                new String[] { SCOPE_EVENT, id });
+                    } else {
+                        values.put("scope", SCOPE_EVENT);
+                        values.put("id", id);
+                        values.put("position", position++);
+                        db.insertWithOnConflict(TABLE_REGISTRATIONS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                    }
+                    existing.put(id, json);
+                    changed = true;
+                }
+                changed |= deleteRegistrations(db, SCOPE_EVENT, delta.getDeletedIds());
+            }
+            setWatermark(db, EVENT_REGISTRATIONS_COLLECTION + eventId, delta.getWatermark());
+            db.setTransactionSuccessful();
+            return changed;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static String registrationId(Registration registration, String eventId, String username) {
+        return registration.getRegistrationId() != null
+                ? registration.getRegistrationId()
+                : eventId + ":" + username;
+    }
+
+    private static boolean deleteRegistrations(SQLiteDatabase db, String scope, Iterable<String> ids) {
+        boolean deleted = false;
+        for (String id : ids) {
+            deleted |= db.delete(TABLE_REGISTRATIONS, "scope = ? AND id = ?", new String[] { scope, id }) > 0;
+        }
+        return deleted;
+    }
+
+    // -------------------------------------------------------------- payments
+
+    public List<Payment> getPaymentsForUser(String username) {
+        return query(TABLE_PAYMENTS, "username = ?", new String[] { username }, "created_at DESC",
+                Payment::fromJson);
+    }
+
+    public void savePayment(Payment payment) {
+        String json = toJson(payment);
+        if (json == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String id = payment.getPaymentId() != null ? payment.getPaymentId()
+                : payment.getTransactionId() != null ? payment.getTransactionId()
+                : payment.getEventId() + ":" + payment.getUsername() + ":" + now;
+        ContentValues values = new ContentValues();
+        values.put("id", id);
+        values.put("event_id", payment.getEventId());
+        values.put("username", payment.getUsername());
+        values.put("created_at", now);
+        values.put("json", json);
+        getWritableDatabase().insertWithOnConflict(TABLE_PAYMENTS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // ---------------------------------------------------------------- passes
+
+    public List<EventPass> getPassesForUser(String username) {
+        return query(TABLE_PASSES, "username = ?", new String[] { username }, "created_at DESC",
+                EventPass::fromJson);
+    }
+
+    public EventPass getPass(String eventId, String username) {
+        List<EventPass> passes = query(TABLE_PASSES, "id = ?", new String[] { passId(eventId, username) }, null,
+                EventPass::fromJson);
+        return passes.isEmpty() ? null : passes.get(0);
+    }
+
+    public void savePass(EventPass pass) {
+        String json = toJson(pass);
+        if (json == null) {
+            return;
+        }
+        ContentValues values = new ContentValues();
+        values.put("id", passId(pass.getEventId(), pass.getUsername()));
+        values.put("username", pass.getUsername());
+        values.put("created_at", pass.getCreatedAt());
+        values.put("json", json);
+        getWritableDatabase().insertWithOnConflict(TABLE_PASSES, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    public void deletePass(String eventId, String username) {
+        getWritableDatabase().delete(TABLE_PASSES, "id = ?", new String[] { passId(eventId, username) });
+    }
+
+    public void clearPasses() {
+        getWritableDatabase().delete(TABLE_PASSES, null, null);
+    }
+
+    private static String passId(String eventId, String username) {
+        return eventId + ":" + username;
+    }
+
+    /**
+     * Delete everything (e.g. on logout)
+     */
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.delete(TABLE_EVENTS, null, null);
+        db.delete(TABLE_REGISTRATIONS, null, null);
+        db.delete(TABLE_PAYMENTS, null, null);
+        db.delete(TABLE_PASSES, null, null);
+        db.delete(TABLE_SYNC, null, null);
+    }
+
+    // --------------------------------------------------------------- helpers
+
+    private String getWatermark(String collection) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_SYNC, new String[] { "watermark" },
+                "collection = ?", new String[] { collection }, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private static void setWatermark(SQLiteDatabase db, String collection, String watermark) {
+        ContentValues values = new ContentValues();
+        values.put("collection", collection);
+        values.put("watermark", watermark);
+        db.insertWithOnConflict(TABLE_SYNC, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static long nextPosition(SQLiteDatabase db, String table, String selection, String[] args) {
+        return DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX(position) + 1, 0) FROM " + table
+                + (selection != null ? " WHERE " + selection : ""), args);
+    }
+
+    private <T> List<T> query(String table, String selection, String[] args, String orderBy, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(table, new String[] { "json" }, selection, args,
+                null, null, orderBy)) {
+            while (cursor.moveToNext()) {
+                try {
+                    rows.add(mapper.map(new JSONObject(cursor.getString(0))));
+                } catch (JSONException e) {
+                    AppLog.w(TAG, "Skipping unreadable row in " + table, e);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Map<String, String> loadById(SQLiteDatabase db, String table, String valueColumn,
+            String selection, String[] args) {
+        Map<String, String> rows = new HashMap<>();
+        try (Cursor cursor = db.query(table, new String[] { "id", valueColumn }, selection, args,
+                null, null, null)) {
+            while (cursor.moveToNext()) {
+                rows.put(cursor.getString(0), cursor.getString(1));
+            }
+        }
+        return rows;
+    }
+
+    private static boolean deleteIds(SQLiteDatabase db, String table, Iterable<String> ids) {
+        boolean deleted = false;
+        for (String id : ids) {
+            deleted |= db.delete(table, "id = ?", new String[] { id }) > 0;
+        }
+        return deleted;
+    }
+
+    private static String toJson(Event event) {
+        try {
+            return event.toJson().toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static String toJson(Registration registration) {
+        try {
+            return registration.toJson().toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static String toJson(EventPass pass) {
+        try {
+            return pass.toJson().toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static String toJson(Payment payment) {
+        try {
+            return payment.toJson().toString();
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide registry of counters, gauges, timers and histograms for profiling
+ * real usage. Metrics are created on first use by name; recording is a few
+ * atomic operations or a short synchronized ring-buffer write, so it is
+ * cheap enough for request and frame paths.
+ *
+ * Names use dots, e.g. "http.ttfb GET /events/{}".
+ */
+public final class Metrics {
+
+    private static final int SAMPLES = 256;
+
+    // Path segments kept as-is in endpoint names; anything else is an id
+    private static final Set<String> ROUTE_WORDS = new HashSet<>(Arrays.asList(
+            "events", "all", "user", "users", "register", "login", "registrations", "payments", "update",
+            "delete", "create", "cancel", "attendance", "batch", "auth", "qr-keys", "changes"));
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Long> gauges = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final long startedAt = System.currentTimeMillis();
+
+    private Metrics() {
+    }
+
+    public static class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        void reset() {
+            value.set(0);
+        }
+    }
+
+    /**
+     * Count, sum, max and percentiles over the most recent samples
+     */
+    public static class Histogram {
+        private final long[] samples = new long[SAMPLES];
+        private final long[] sorted = new long[SAMPLES];
+        private final String unit;
+        private final double scale;
+        private int size;
+        private int next;
+        private long count;
+        private long sum;
+        private long max;
+
+        Histogram(String unit, double scale) {
+            this.unit = unit;
+            this.scale = scale;
+        }
+
+        public synchronized void record(long value) {
+            samples[next] = value;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) {
+                size++;
+            }
+            count++;
+            sum += value;
+            if (value > max) {
+                max = value;
+            }
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * @param percentile 0-100, over the retained samples, in display units
+         */
+        public synchronized double getPercentile(double percentile) {
+            if (size == 0) {
+                return 0.0;
+            }
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted, 0, size);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))] / scale;
+        }
+
+        public synchronized String getSummary() {
+            if (count == 0) {
+                return "n=0";
+            }
+            return String.format(Locale.US, "n=%d, mean=%.1f%s, p50=%.1f%s, p95=%.1f%s, max=%.1f%s",
+                    count, sum / scale / count, unit, getPercentile(50), unit, getPercentile(95), unit,
+                    max / scale, unit);
+        }
+
+        synchronized void reset() {
+            size = 0;
+            next = 0;
+            count = 0;
+            sum = 0;
+            max = 0;
+        }
+    }
+
+    /**
+     * Histogram of durations recorded in nanoseconds, shown in milliseconds
+     */
+    public static class Timer extends Histogram {
+        Timer() {
+            super("ms", 1_000_000.0);
+        }
+
+        /**
+         * Record the time since startNanos (from System.nanoTime())
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counters.putIfAbsent(name, new Counter());
+            counter = counters.get(name);
+        }
+        return counter;
+    }
+
+    /**
+     * Set a value that describes current state rather than a count (e.g. a
+     * circuit breaker's state); kept across {@link #reset()}
+     */
+    public static void gauge(String name, long value) {
+        gauges.put(name, value);
+    }
+
+    public static Timer timer(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histograms.putIfAbsent(name, new Timer());
+            histogram = histograms.get(name);
+        }
+        return (Timer) histogram;
+    }
+
+    /**
+     * Histogram of plain values such as byte counts
+     */
+    public static Histogram histogram(String name, String unit) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histograms.putIfAbsent(name, new Histogram(unit, 1.0));
+            histogram = histograms.get(name);
+        }
+        return histogram;
+    }
+
+    /**
+     * Stable metric name for a request: ids in the path become {} and the
+     * query is dropped, so each endpoint gets one series
+     */
+    public static String endpointName(String method, String pathOrUrl) {
+        String path = pathOrUrl;
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int slash = path.indexOf('/', scheme + 3);
+            path = slash >= 0 ? path.substring(slash) : "/";
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        StringBuilder name = new StringBuilder(method).append(' ');
+        int prefixLength = name.length();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            name.append('/').append(ROUTE_WORDS.contains(segment) ? segment : "{}");
+        }
+        if (name.length() == prefixLength) {
+            name.append('/');
+        }
+        return name.toString();
+    }
+
+    /**
+     * All metrics as text, sorted by name
+     */
+    public static String snapshot() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "uptime=%ds%n",
+                (System.currentTimeMillis() - startedAt) / 1000));
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            out.append(entry.getKey()).append(" = ").append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, Long> entry : new TreeMap<>(gauges).entrySet()) {
+            out.append(entry.getKey()).append(" = ").append(entry.getValue()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            out.append(entry.getKey()).append(": ").append(entry.getValue().getSummary()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Write the snapshot plus any extra sections to a file
+     */
+    public static void dumpToFile(File file, String extra) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Couldn't create " + parent);
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(snapshot());
+            if (extra != null) {
+                writer.write('\n');
+                writer.write(extra);
+            }
+        }
+    }
+
+    /**
+     * Zero every metric; instances already held by callers stay registered
+     */
+    public static void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
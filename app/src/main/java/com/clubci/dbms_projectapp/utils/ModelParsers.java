@@ -0,0 +1,47 @@
+package com.clubci.dbms_projectapp.utils;
+
+import com.clubci.dbms_projectapp.models.Event;
+import com.clubci.dbms_projectapp.models.Registration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared response parsers for {@link ApiClient#getAuth(String, ApiClient.Parser, ApiClient.TypedCallback)}.
+ * Using the same instance everywhere lets concurrent identical requests be coalesced.
+ */
+public class ModelParsers {
+
+    public static final ApiClient.Parser<Event> EVENT =
+            body -> JsonStreamDecoder.readValue(body, Event::fromJsonReader);
+
+    public static final ApiClient.Parser<List<Event>> EVENT_LIST = listOf(Event::fromJsonReader);
+
+    public static final ApiClient.Parser<List<Registration>> REGISTRATION_LIST =
+            listOf(Registration::fromJsonReader);
+
+    public static final ApiClient.Parser<SyncDelta<Event>> EVENT_CHANGES = deltaOf(Event::fromJsonReader);
+
+    public static final ApiClient.Parser<SyncDelta<Registration>> REGISTRATION_CHANGES =
+            deltaOf(Registration::fromJsonReader);
+
+    /**
+     * Parser for a JSON array decoded element by element. The resulting list
+     * is read-only because it may be shared between coalesced callers.
+     */
+    public static <T> ApiClient.Parser<List<T>> listOf(JsonStreamDecoder.ItemReader<T> itemReader) {
+        return body -> {
+            List<T> items = new ArrayList<>();
+            JsonStreamDecoder.readArray(body, itemReader, items::add);
+            return Collections.unmodifiableList(items);
+        };
+    }
+
+    /**
+     * Parser for a delta sync response whose changed rows are read with itemReader
+     */
+    public static <T> ApiClient.Parser<SyncDelta<T>> deltaOf(JsonStreamDecoder.ItemReader<T> itemReader) {
+        return body -> JsonStreamDecoder.readValue(body, reader -> SyncDelta.fromJsonReader(reader, itemReader));
+    }
+}
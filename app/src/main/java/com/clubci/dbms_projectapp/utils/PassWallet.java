@@ -0,0 +1,214 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.clubci.dbms_projectapp.models.EventPass;
+import com.clubci.dbms_projectapp.models.Registration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * QR passes rendered when a registration is made or synced and kept on the
+ * device as PNGs, so the QR tab can show them with no network and no
+ * encoding. Pass metadata is stored in {@link LocalStore}.
+ *
+ * Listener callbacks run on the main thread.
+ */
+public class PassWallet {
+
+    private static final String TAG = "PassWallet";
+    public static final int PASS_SIZE = 512;
+    private static final String PASS_DIR = "passes";
+
+    public interface Listener {
+        /**
+         * @param passes passes whose image is on disk; load one with
+         *               {@link #loadImage} when it is shown
+         */
+        void onPasses(List<EventPass> passes);
+    }
+
+    public interface ImageListener {
+        /**
+         * @param bitmap the pass image, or null if it couldn't be read
+         */
+        void onImage(Bitmap bitmap);
+    }
+
+    private static PassWallet instance;
+
+    private final LocalStore store;
+    private final File directory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private PassWallet(Context context) {
+        this.store = LocalStore.getInstance(context);
+        this.directory = new File(context.getFilesDir(), PASS_DIR);
+    }
+
+    public static synchronized PassWallet getInstance(Context context) {
+        if (instance == null) {
+            instance = new PassWallet(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Render the pass for a registration that just succeeded
+     *
+     * @param qrToken signed pass from the backend, or null to use the JSON payload
+     */
+    public void addPass(String username, String eventId, String eventName, String qrToken) {
+        executor.execute(() -> issue(username, eventId, eventName, qrToken));
+    }
+
+    /**
+     * Bring the passes of a user in line with their registrations: render
+     * missing or changed passes and drop those of cancelled registrations
+     */
+    public void sync(String username, List<Registration> registrations) {
+        List<Registration> snapshot = new ArrayList<>(registrations);
+        executor.execute(() -> {
+            Set<String> current = new HashSet<>();
+            for (Registration registration : snapshot) {
+                if (registration.getEventId() == null) {
+                    continue;
+                }
+                current.add(registration.getEventId());
+                issue(username, registration.getEventId(), registration.getEventName(),
+                        registration.getQrToken());
+            }
+            for (EventPass pass : store.getPassesForUser(username)) {
+                if (!current.contains(pass.getEventId())) {
+                    remove(pass);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stored passes of a user that have an image, newest first. Images are
+     * not decoded here; see {@link #loadImage}.
+     */
+    public void getPasses(String username, Listener listener) {
+        executor.execute(() -> {
+            List<EventPass> passes = new ArrayList<>();
+            for (EventPass pass : store.getPassesForUser(username)) {
+                if (pass.getImagePath() != null && new File(pass.getImagePath()).isFile()) {
+                    passes.add(pass);
+                }
+            }
+            mainHandler.post(() -> listener.onPasses(passes));
+        });
+    }
+
+    /**
+     * Decode the image of one pass, subsampled to no less than maxSize
+     * pixels a side. Passes are black and white, so RGB_565 loses nothing
+     * and takes half the memory of ARGB_8888.
+     */
+    public void loadImage(EventPass pass, int maxSize, ImageListener listener) {
+        String path = pass.getImagePath();
+        executor.execute(() -> {
+            Bitmap bitmap = path != null ? decode(path, maxSize) : null;
+            mainHandler.post(() -> listener.onImage(bitmap));
+        });
+    }
+
+    /**
+     * Delete all passes (e.g. on logout). Images and rows go together on the
+     * wallet's thread, after any pass still being issued.
+     */
+    public void clear() {
+        executor.execute(() -> {
+            store.clearPasses();
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        });
+    }
+
+    private void issue(String username, String eventId, String eventName, String qrToken) {
+        EventPass existing = store.getPass(eventId, username);
+
+        String payload;
+        if (qrToken != null && !qrToken.isEmpty()) {
+            payload = qrToken;
+        } else if (existing != null && !QrPayloadCodec.isCompact(existing.getPayload())) {
+            // JSON payloads embed their creation time; keep the first one
+            payload = existing.getPayload();
+        } else {
+            payload = QRCodeGenerator.generateUserQRData(username, eventName, eventId);
+        }
+
+        if (existing != null && payload.equals(existing.getPayload()) && existing.getImagePath() != null
+                && new File(existing.getImagePath()).exists()) {
+            return;
+        }
+
+        Bitmap bitmap = QRCodeGenerator.generateQRCode(payload, PASS_SIZE, PASS_SIZE);
+        if (bitmap == null) {
+            return;
+        }
+        File file = new File(directory, fileName(eventId, username));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            AppLog.w(TAG, "Couldn't create " + directory);
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            AppLog.w(TAG, "Couldn't save pass for " + eventId, e);
+            return;
+        }
+
+        EventPass pass = new EventPass(eventId, eventName, username, payload);
+        pass.setImagePath(file.getAbsolutePath());
+        store.savePass(pass);
+    }
+
+    private static Bitmap decode(String path, int maxSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        int sampleSize = 1;
+        // Power-of-two steps keep the QR modules sharp
+        while (Math.min(options.outWidth, options.outHeight) / (sampleSize * 2) >= maxSize) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeFile(path, options);
+    }
+
+    private void remove(EventPass pass) {
+        store.deletePass(pass.getEventId(), pass.getUsername());
+        if (pass.getImagePath() != null) {
+            new File(pass.getImagePath()).delete();
+        }
+    }
+
+    private static String fileName(String eventId, String username) {
+        return (eventId + "_" + username).replaceAll("[^A-Za-z0-9_-]", "_") + ".png";
+    }
+}
@@ -2,6 +2,7 @@ package com.clubci.dbms_projectapp.utils;
 
 import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.util.LruCache;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
@@ -9,11 +10,27 @@ import com.google.zxing.qrcode.QRCodeWriter;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.Arrays;
+
 public class QRCodeGenerator {
 
+    // Rendered codes by payload and size; RGB_565 at 512px is 512 KB
+    private static final int CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+    private static final LruCache<String, Bitmap> bitmapCache = new LruCache<String, Bitmap>(CACHE_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+
     /**
      * Generate QR Code bitmap from text
      * 
+     * The code is encoded at one pixel per module, then each module row is
+     * expanded once and copied for the rows it covers, and the whole image
+     * is written with a single setPixels call. Rendered bitmaps are cached;
+     * call off the main thread when {@link #getCachedQRCode} misses.
+     * 
      * @param text   Text to encode
      * @param width  Width of the QR code
      * @param height Height of the QR code
@@ -24,18 +41,17 @@ public class QRCodeGenerator {
             return null;
         }
 
+        Bitmap cached = getCachedQRCode(text, width, height);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
-
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
-                }
-            }
-
+            // Size 0 returns the bare module grid (with quiet zone)
+            BitMatrix modules = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 0, 0);
+            Bitmap bitmap = render(modules, width, height);
+            bitmapCache.put(cacheKey(text, width, height), bitmap);
             return bitmap;
         } catch (WriterException e) {
             e.printStackTrace();
@@ -43,6 +59,61 @@ public class QRCodeGenerator {
         }
     }
 
+    /**
+     * Previously rendered bitmap, cheap enough for the main thread
+     * 
+     * @return the bitmap, or null if it hasn't been generated yet
+     */
+    public static Bitmap getCachedQRCode(String text, int width, int height) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        return bitmapCache.get(cacheKey(text, width, height));
+    }
+
+    /**
+     * Scale the module grid by a whole number of pixels per module,
+     * centred, the same placement zxing uses when asked for a size
+     */
+    private static Bitmap render(BitMatrix modules, int width, int height) {
+        int moduleWidth = modules.getWidth();
+        int moduleHeight = modules.getHeight();
+        int scale = Math.max(1, Math.min(width / moduleWidth, height / moduleHeight));
+        int left = Math.max(0, (width - moduleWidth * scale) / 2);
+        int top = Math.max(0, (height - moduleHeight * scale) / 2);
+
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, Color.WHITE);
+        for (int my = 0; my < moduleHeight; my++) {
+            int y = top + my * scale;
+            if (y >= height) {
+                break;
+            }
+            int rowStart = y * width;
+            for (int mx = 0; mx < moduleWidth; mx++) {
+                if (modules.get(mx, my)) {
+                    int x = left + mx * scale;
+                    if (x >= width) {
+                        break;
+                    }
+                    Arrays.fill(pixels, rowStart + x, rowStart + Math.min(width, x + scale), Color.BLACK);
+                }
+            }
+            // The rest of this module row is identical
+            for (int dy = 1; dy < scale && y + dy < height; dy++) {
+                System.arraycopy(pixels, rowStart, pixels, rowStart + dy * width, width);
+            }
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+        return bitmap;
+    }
+
+    private static String cacheKey(String text, int width, int height) {
+        return width + "x" + height + ":" + text;
+    }
+
     /**
      * Generate QR code data for user in JSON format
      * 
@@ -81,14 +152,46 @@ public class QRCodeGenerator {
     /**
      * Parse QR code data from JSON format
      * 
-     * @param qrData QR code string (JSON or legacy format)
+     * @param qrData QR code string (signed compact, JSON or legacy format)
      * @return JSONObject with username, eventName, eventId, timestamp
      */
     public static JSONObject parseQRDataJson(String qrData) {
+        return parseQRDataJson(qrData, null);
+    }
+
+    /**
+     * Parse QR code data, verifying signed compact passes offline
+     * 
+     * @param qrData QR code string (signed compact, JSON or legacy format)
+     * @param keys   signing keys for compact passes, may be null
+     * @return JSONObject with username, eventName, eventId, timestamp (plus
+     *         signed/verified for compact passes), or null if invalid or the
+     *         signature doesn't match
+     */
+    public static JSONObject parseQRDataJson(String qrData, QrPayloadCodec.KeyProvider keys) {
         if (qrData == null || qrData.isEmpty()) {
             return null;
         }
 
+        if (QrPayloadCodec.isCompact(qrData)) {
+            QrPayloadCodec.Payload payload = QrPayloadCodec.decode(qrData, keys);
+            if (payload == null) {
+                return null;
+            }
+            try {
+                JSONObject json = new JSONObject();
+                json.put("username", payload.getUsername());
+                json.put("eventId", payload.getEventId());
+                json.put("eventName", "");
+                json.put("timestamp", payload.getIssuedAtSeconds() * 1000);
+                json.put("signed", true);
+                json.put("verified", payload.isVerified());
+                return json;
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+
         try {
             // Try to parse as JSON first
             JSONObject json = new JSONObject(qrData);
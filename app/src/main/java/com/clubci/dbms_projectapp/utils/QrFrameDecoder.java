@@ -0,0 +1,285 @@
+package com.clubci.dbms_projectapp.utils;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes QR codes from camera luma planes without per-frame garbage.
+ *
+ * The luma buffer, luminance source, binarizer and BinaryBitmap are created
+ * once per decode size and reused; each frame only copies the plane (row
+ * stride honoured) into the pooled buffer and re-binarizes in place.
+ * The buffers and decoder objects this class creates are counted so the
+ * pooling can be checked. The count does not see allocations inside zxing
+ * (the detector and decoder still create small temporaries every frame), so
+ * it is not a measure of per-frame garbage.
+ *
+ * Only a centred square region of interest is copied (matching the on-screen
+ * reticle), optionally subsampled, so each decode sees far fewer pixels.
+ * Decode latency is recorded per configuration.
+ *
+ * Only QR codes are searched for. When the fast path finds nothing the same
+ * matrix is flipped in place and tried again (light-on-dark codes), and every
+ * few failed frames a global-histogram binarizer gets a turn for glare and
+ * low-contrast screens.
+ *
+ * A frame can be copied in with load() on one thread and decoded with
+ * decodeLoaded() on another (see {@link QrScanEngine}), but an instance must
+ * not be used by two threads at the same time.
+ */
+public class QrFrameDecoder {
+
+    private static final int LATENCY_SAMPLES = 512;
+    private static final int ALTERNATE_BINARIZER_INTERVAL = 4;
+
+    private static final Map<DecodeHintType, Object> QR_ONLY_HINTS = new EnumMap<>(DecodeHintType.class);
+
+    static {
+        QR_ONLY_HINTS.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(BarcodeFormat.QR_CODE));
+    }
+
+    private final MultiFormatReader reader = new MultiFormatReader();
+    private final LatencyRecorder latency;
+
+    private volatile float roiFraction = 1f;
+    private volatile int downscale = 1;
+
+    private byte[] luma;
+    private byte[] rowScratch;
+    private int decodeWidth;
+    private int decodeHeight;
+    private PlanarYUVLuminanceSource source;
+    private ReusableHybridBinarizer binarizer;
+    private BinaryBitmap bitmap;
+    private long loadStartNanos;
+    private long loadBufferAllocations;
+    private int failedFrames;
+    private volatile int lastFrameWidth;
+    private volatile int lastFrameHeight;
+
+    private final AtomicLong frameCount = new AtomicLong();
+    private final AtomicLong bufferAllocations = new AtomicLong();
+    private volatile long lastFrameBufferAllocations;
+    private final AtomicLong fallbackDecodes = new AtomicLong();
+
+    public QrFrameDecoder() {
+        this(new LatencyRecorder(LATENCY_SAMPLES));
+    }
+
+    /**
+     * @param latency recorder for decode times, may be shared between decoders
+     */
+    public QrFrameDecoder(LatencyRecorder latency) {
+        this.latency = latency;
+        reader.setHints(QR_ONLY_HINTS);
+    }
+
+    /**
+     * Only decode a centred square whose side is this fraction of the
+     * shorter frame side (1 = whole frame). Resets latency stats on change.
+     */
+    public void setRegionOfInterest(float fraction) {
+        float clamped = Math.max(0.1f, Math.min(1f, fraction));
+        if (clamped != roiFraction) {
+            roiFraction = clamped;
+            latency.reset();
+        }
+    }
+
+    /**
+     * Decode every n-th pixel in both directions (1 = full resolution).
+     * Resets latency stats on change.
+     */
+    public void setDownscale(int factor) {
+        int clamped = Math.max(1, factor);
+        if (clamped != downscale) {
+            downscale = clamped;
+            latency.reset();
+        }
+    }
+
+    /**
+     * Decode one frame
+     *
+     * @param plane     Y plane buffer (pixel stride 1)
+     * @param rowStride bytes between the starts of consecutive rows
+     * @return the QR text, or null when no code was found
+     */
+    public String decode(ByteBuffer plane, int rowStride, int width, int height) {
+        return load(plane, rowStride, width, height) ? decodeLoaded() : null;
+    }
+
+    /**
+     * Copy the region of interest of a frame into the pooled buffer. The
+     * plane is no longer needed afterwards, so the camera image can be closed.
+     *
+     * @return false if the region is too small to decode
+     */
+    public boolean load(ByteBuffer plane, int rowStride, int width, int height) {
+        loadStartNanos = System.nanoTime();
+
+        int cropWidth = width;
+        int cropHeight = height;
+        float fraction = roiFraction;
+        if (fraction < 1f) {
+            cropWidth = cropHeight = Math.round(Math.min(width, height) * fraction);
+        }
+        int left = (width - cropWidth) / 2;
+        int top = (height - cropHeight) / 2;
+        int factor = downscale;
+        int outWidth = cropWidth / factor;
+        int outHeight = cropHeight / factor;
+        if (outWidth < ReusableHybridBinarizer.MINIMUM_DIMENSION
+                || outHeight < ReusableHybridBinarizer.MINIMUM_DIMENSION) {
+            return false;
+        }
+
+        frameCount.incrementAndGet();
+        lastFrameWidth = width;
+        lastFrameHeight = height;
+        loadBufferAllocations = bufferAllocations.get();
+        ensureBuffers(outWidth, outHeight, factor > 1 ? outWidth * factor : 0);
+        copyRegion(plane, rowStride, left, top, outWidth, outHeight, factor);
+        return true;
+    }
+
+    /**
+     * Decode the frame copied by the last successful load()
+     *
+     * @return the QR text, or null when no code was found
+     */
+    public String decodeLoaded() {
+        try {
+            binarizer.binarize();
+            String text = tryDecode(bitmap);
+            if (text != null) {
+                return text;
+            }
+
+            // Inverted code: flip the same matrix in place and retry
+            bitmap.getBlackMatrix().flip();
+            text = tryDecode(bitmap);
+            if (text == null && ++failedFrames % ALTERNATE_BINARIZER_INTERVAL == 0) {
+                // Alternate thresholding; zxing binarizers other than ours cache, so this allocates
+                bufferAllocations.addAndGet(2);
+                text = tryDecode(new BinaryBitmap(new GlobalHistogramBinarizer(source)));
+            }
+            if (text != null) {
+                fallbackDecodes.incrementAndGet();
+            }
+            return text;
+        } catch (NotFoundException e) {
+            return null;
+        } finally {
+            latency.record(System.nanoTime() - loadStartNanos);
+            lastFrameBufferAllocations = bufferAllocations.get() - loadBufferAllocations;
+        }
+    }
+
+    private String tryDecode(BinaryBitmap image) {
+        try {
+            return reader.decodeWithState(image).getText();
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
+    private void ensureBuffers(int width, int height, int rowBytes) {
+        if (rowBytes > 0 && (rowScratch == null || rowScratch.length < rowBytes)) {
+            rowScratch = new byte[rowBytes];
+            bufferAllocations.incrementAndGet();
+        }
+        if (bitmap != null && width == decodeWidth && height == decodeHeight) {
+            return;
+        }
+        int size = width * height;
+        if (luma == null || luma.length < size) {
+            luma = new byte[size];
+            bufferAllocations.incrementAndGet();
+        }
+        source = new PlanarYUVLuminanceSource(luma, width, height, 0, 0, width, height, false);
+        binarizer = new ReusableHybridBinarizer(source);
+        // The bitmap caches the binarizer's matrix object, which is rewritten in place
+        bitmap = new BinaryBitmap(binarizer);
+        bufferAllocations.addAndGet(3);
+        decodeWidth = width;
+        decodeHeight = height;
+    }
+
+    private void copyRegion(ByteBuffer plane, int rowStride, int left, int top, int outWidth, int outHeight,
+            int factor) {
+        if (factor == 1) {
+            if (left == 0 && rowStride == outWidth) {
+                plane.position(top * rowStride);
+                plane.get(luma, 0, outWidth * outHeight);
+                return;
+            }
+            for (int y = 0; y < outHeight; y++) {
+                plane.position((top + y) * rowStride + left);
+                plane.get(luma, y * outWidth, outWidth);
+            }
+            return;
+        }
+
+        int rowBytes = outWidth * factor;
+        for (int y = 0; y < outHeight; y++) {
+            plane.position((top + y * factor) * rowStride + left);
+            plane.get(rowScratch, 0, rowBytes);
+            int offset = y * outWidth;
+            for (int x = 0; x < outWidth; x++) {
+                luma[offset + x] = rowScratch[x * factor];
+            }
+        }
+    }
+
+    public long getFrameCount() {
+        return frameCount.get();
+    }
+
+    /**
+     * Total buffers and decoder objects created by this class; zxing's own
+     * allocations are not included
+     */
+    public long getBufferAllocationCount() {
+        return bufferAllocations.get();
+    }
+
+    /**
+     * Buffers and decoder objects created for the most recent frame (0 once
+     * the pool is warm); zxing's own allocations are not included
+     */
+    public long getLastFrameBufferAllocations() {
+        return lastFrameBufferAllocations;
+    }
+
+    /**
+     * Frames decoded only by the inverted or alternate-binarizer fallback
+     */
+    public long getFallbackDecodes() {
+        return fallbackDecodes.get();
+    }
+
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    /**
+     * Current configuration and its decode latency percentiles
+     */
+    public String getLatencySummary() {
+        return String.format(Locale.US, "frame=%dx%d, roi=%.2f, downscale=%d: %s",
+                lastFrameWidth, lastFrameHeight, roiFraction, downscale, latency.getSummary());
+    }
+}
@@ -0,0 +1,220 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Compact, signed attendance pass issued by the backend at registration.
+ *
+ * Layout (version 1), base45 encoded after the "C1:" prefix so the whole
+ * string fits the QR alphanumeric mode:
+ *
+ * <pre>
+ * version(1) keyId(1) issuedAt(4, epoch seconds) eventIdLen(1) eventId
+ * usernameLen(1) username hmac(8)
+ * </pre>
+ *
+ * The signature is HMAC-SHA256 over everything before it, truncated to
+ * 8 bytes, so a scanner holding the event keys can verify a pass offline.
+ */
+public class QrPayloadCodec {
+
+    public static final String PREFIX = "C1:";
+
+    private static final int VERSION = 1;
+    private static final int SIGNATURE_LENGTH = 8;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String BASE45_CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    /**
+     * Signing keys by id, as distributed to scanning devices
+     */
+    public interface KeyProvider {
+        /**
+         * @return the key, or null if this device doesn't have it
+         */
+        byte[] getKey(int keyId);
+    }
+
+    public static class Payload {
+        private final String eventId;
+        private final String username;
+        private final long issuedAtSeconds;
+        private final int keyId;
+        private final boolean verified;
+
+        Payload(String eventId, String username, long issuedAtSeconds, int keyId, boolean verified) {
+            this.eventId = eventId;
+            this.username = username;
+            this.issuedAtSeconds = issuedAtSeconds;
+            this.keyId = keyId;
+            this.verified = verified;
+        }
+
+        public String getEventId() {
+            return eventId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getIssuedAtSeconds() {
+            return issuedAtSeconds;
+        }
+
+        public int getKeyId() {
+            return keyId;
+        }
+
+        /**
+         * False when the signing key isn't on this device, so only the
+         * backend can check the pass
+         */
+        public boolean isVerified() {
+            return verified;
+        }
+    }
+
+    public static boolean isCompact(String data) {
+        return data != null && data.startsWith(PREFIX);
+    }
+
+    /**
+     * Build a signed pass (the backend's side; used to check the format)
+     */
+    public static String encode(String eventId, String username, long issuedAtSeconds, int keyId, byte[] key)
+            throws GeneralSecurityException {
+        byte[] eventBytes = eventId.getBytes(StandardCharsets.UTF_8);
+        byte[] userBytes = username.getBytes(StandardCharsets.UTF_8);
+        if (eventBytes.length > 255 || userBytes.length > 255 || keyId < 0 || keyId > 255) {
+            throw new IllegalArgumentException("Field too long for a compact pass");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(VERSION);
+        out.write(keyId);
+        out.write((int) (issuedAtSeconds >>> 24));
+        out.write((int) (issuedAtSeconds >>> 16));
+        out.write((int) (issuedAtSeconds >>> 8));
+        out.write((int) issuedAtSeconds);
+        out.write(eventBytes.length);
+        out.write(eventBytes, 0, eventBytes.length);
+        out.write(userBytes.length);
+        out.write(userBytes, 0, userBytes.length);
+        byte[] body = out.toByteArray();
+        byte[] signature = sign(key, body, body.length);
+        out.write(signature, 0, SIGNATURE_LENGTH);
+        return PREFIX + base45Encode(out.toByteArray());
+    }
+
+    /**
+     * Parse and, when the key is available, verify a compact pass
+     *
+     * @return null if the pass is malformed or its signature doesn't match
+     */
+    public static Payload decode(String data, KeyProvider keys) {
+        if (!isCompact(data)) {
+            return null;
+        }
+        byte[] bytes = base45Decode(data.substring(PREFIX.length()));
+        if (bytes == null || bytes.length < 8 + SIGNATURE_LENGTH || (bytes[0] & 0xFF) != VERSION) {
+            return null;
+        }
+
+        int keyId = bytes[1] & 0xFF;
+        long issuedAt = ((bytes[2] & 0xFFL) << 24) | ((bytes[3] & 0xFFL) << 16)
+                | ((bytes[4] & 0xFFL) << 8) | (bytes[5] & 0xFFL);
+        int offset = 6;
+        int eventLength = bytes[offset++] & 0xFF;
+        if (offset + eventLength + 1 > bytes.length - SIGNATURE_LENGTH) {
+            return null;
+        }
+        String eventId = new String(bytes, offset, eventLength, StandardCharsets.UTF_8);
+        offset += eventLength;
+        int userLength = bytes[offset++] & 0xFF;
+        if (offset + userLength != bytes.length - SIGNATURE_LENGTH) {
+            return null;
+        }
+        String username = new String(bytes, offset, userLength, StandardCharsets.UTF_8);
+        offset += userLength;
+
+        byte[] key = keys != null ? keys.getKey(keyId) : null;
+        if (key == null) {
+            return new Payload(eventId, username, issuedAt, keyId, false);
+        }
+        try {
+            byte[] expected = Arrays.copyOf(sign(key, bytes, offset), SIGNATURE_LENGTH);
+            byte[] actual = Arrays.copyOfRange(bytes, offset, bytes.length);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+        return new Payload(eventId, username, issuedAt, keyId, true);
+    }
+
+    private static byte[] sign(byte[] key, byte[] data, int length) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+        mac.update(data, 0, length);
+        return mac.doFinal();
+    }
+
+    // RFC 9285: two bytes become three characters, a trailing byte two
+
+    static String base45Encode(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length / 2) * 3 + 2);
+        for (int i = 0; i + 1 < data.length; i += 2) {
+            int n = ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+            out.append(BASE45_CHARSET.charAt(n % 45));
+            out.append(BASE45_CHARSET.charAt((n / 45) % 45));
+            out.append(BASE45_CHARSET.charAt(n / (45 * 45)));
+        }
+        if (data.length % 2 == 1) {
+            int n = data[data.length - 1] & 0xFF;
+            out.append(BASE45_CHARSET.charAt(n % 45));
+            out.append(BASE45_CHARSET.charAt(n / 45));
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return null if the text isn't valid base45
+     */
+    static byte[] base45Decode(String text) {
+        if (text.length() % 3 == 1) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() * 2 / 3);
+        for (int i = 0; i < text.length(); i += 3) {
+            int c = BASE45_CHARSET.indexOf(text.charAt(i));
+            int d = BASE45_CHARSET.indexOf(text.charAt(i + 1));
+            if (c < 0 || d < 0) {
+                return null;
+            }
+            if (i + 2 < text.length()) {
+                int e = BASE45_CHARSET.indexOf(text.charAt(i + 2));
+                int n = c + d * 45 + (e < 0 ? 0 : e) * 45 * 45;
+                if (e < 0 || n > 0xFFFF) {
+                    return null;
+                }
+                out.write(n >> 8);
+                out.write(n & 0xFF);
+            } else {
+                int n = c + d * 45;
+                if (n > 0xFF) {
+                    return null;
+                }
+                out.write(n);
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,130 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes camera frames on a small pool of workers.
+ *
+ * submit() runs on the camera analysis thread: it copies the frame's region
+ * of interest into an idle worker's buffer and returns, so the camera image
+ * can be closed and the next frame delivered while earlier ones are still
+ * decoding. Each worker holds at most one frame; when all are busy the frame
+ * is dropped, so nobody ever decodes a stale queued frame.
+ */
+public class QrScanEngine {
+
+    public interface Listener {
+        /**
+         * Called on a worker thread; several workers may report the same code
+         */
+        void onDecoded(String text);
+    }
+
+    private static final int LATENCY_SAMPLES = 512;
+
+    private final Worker[] workers;
+    private final ExecutorService executor;
+    private final Listener listener;
+    private final LatencyRecorder latency = new LatencyRecorder(LATENCY_SAMPLES);
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private class Worker implements Runnable {
+        final QrFrameDecoder decoder = new QrFrameDecoder(latency);
+        final AtomicBoolean busy = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            try {
+                String text = decoder.decodeLoaded();
+                if (text != null) {
+                    listener.onDecoded(text);
+                }
+            } finally {
+                busy.set(false);
+            }
+        }
+    }
+
+    public QrScanEngine(int workerCount, Listener listener) {
+        this.listener = listener;
+        this.workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker();
+        }
+        this.executor = Executors.newFixedThreadPool(workers.length);
+    }
+
+    /**
+     * One worker per spare core, at most three
+     */
+    public static int defaultWorkerCount() {
+        return Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public void setRegionOfInterest(float fraction) {
+        for (Worker worker : workers) {
+            worker.decoder.setRegionOfInterest(fraction);
+        }
+    }
+
+    public void setDownscale(int factor) {
+        for (Worker worker : workers) {
+            worker.decoder.setDownscale(factor);
+        }
+    }
+
+    /**
+     * Hand a frame to an idle worker. The plane is fully copied before this
+     * returns.
+     *
+     * @return false if the frame was dropped
+     */
+    public boolean submit(ByteBuffer plane, int rowStride, int width, int height) {
+        for (Worker worker : workers) {
+            if (!worker.busy.compareAndSet(false, true)) {
+                continue;
+            }
+            if (!worker.decoder.load(plane, rowStride, width, height)) {
+                worker.busy.set(false);
+                return false;
+            }
+            executor.execute(worker);
+            return true;
+        }
+        droppedFrames.incrementAndGet();
+        return false;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public long getFrameCount() {
+        long frames = 0;
+        for (Worker worker : workers) {
+            frames += worker.decoder.getFrameCount();
+        }
+        return frames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public String getSummary() {
+        long bufferAllocations = 0;
+        long fallbacks = 0;
+        for (Worker worker : workers) {
+            bufferAllocations += worker.decoder.getBufferAllocationCount();
+            fallbacks += worker.decoder.getFallbackDecodes();
+        }
+        return String.format(Locale.US, "workers=%d, frames=%d, dropped=%d, fallbackDecodes=%d, bufferAllocations(excl. zxing)=%d, %s",
+                workers.length, getFrameCount(), droppedFrames.get(), fallbacks, bufferAllocations,
+                workers[0].decoder.getLatencySummary());
+    }
+}
@@ -0,0 +1,80 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded LRU of recently handled (eventId, username) scans. A scan seen
+ * again within the time window is reported as a duplicate so repeat camera
+ * frames of the same pass can be dropped before any dialog or request.
+ *
+ * Not thread safe; use from one thread.
+ */
+public class RecentScanCache {
+
+    private final long windowMs;
+    private final LinkedHashMap<String, Long> lastSeen;
+    private long suppressedCount;
+
+    /**
+     * @param maxEntries scans remembered before the least recent is evicted
+     * @param windowMs   how long a scan counts as a repeat
+     */
+    public RecentScanCache(int maxEntries, long windowMs) {
+        this.windowMs = windowMs;
+        this.lastSeen = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Record a scan at nowMs
+     *
+     * @return true if the same scan was already recorded within the window
+     */
+    public boolean isDuplicate(String eventId, String username, long nowMs) {
+        String key = key(eventId, username);
+        Long previous = lastSeen.get(key);
+        if (previous != null && nowMs - previous < windowMs) {
+            // Keep the original time so a code held in view expires after the window
+            suppressedCount++;
+            return true;
+        }
+        lastSeen.put(key, nowMs);
+        return false;
+    }
+
+    /**
+     * Drop a recorded scan so the same pass is handled again right away,
+     * e.g. after the operator cancelled it or the upload was refused
+     */
+    public void forget(String eventId, String username) {
+        lastSeen.remove(key(eventId, username));
+    }
+
+    /**
+     * Count a scan dropped for another reason (e.g. already attended)
+     */
+    public void countSuppressed() {
+        suppressedCount++;
+    }
+
+    /**
+     * Scans dropped as duplicates since this cache was created
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    public void clear() {
+        lastSeen.clear();
+    }
+
+    private static String key(String eventId, String username) {
+        return eventId + '\n' + username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,99 @@
+package com.clubci.dbms_projectapp.utils;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Returned by {@link ApiClient} and {@link DataRepository} requests so the
+ * caller can cancel them. A request cancelled while queued never runs; one
+ * already on the wire completes, but its callback is dropped.
+ *
+ * cancel() may be called from any thread, bindTo() on the main thread.
+ */
+public class RequestHandle {
+
+    private boolean cancelled;
+    private boolean finished;
+    private List<Runnable> cancelActions = new ArrayList<>();
+    private Runnable unbind;
+
+    public void cancel() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (cancelled || finished) {
+                return;
+            }
+            cancelled = true;
+            actions = cancelActions;
+            cancelActions = null;
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancel the request when the owner is destroyed. Fragments should pass
+     * getViewLifecycleOwner() so nothing calls back into a destroyed view.
+     */
+    public RequestHandle bindTo(LifecycleOwner owner) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            cancel();
+            return this;
+        }
+        LifecycleEventObserver observer = (source, event) -> {
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                cancel();
+            }
+        };
+        synchronized (this) {
+            if (finished || cancelled) {
+                return this;
+            }
+            unbind = () -> lifecycle.removeObserver(observer);
+        }
+        lifecycle.addObserver(observer);
+        return this;
+    }
+
+    /**
+     * Run an action when the request is cancelled, or straight away if it
+     * already has been
+     */
+    void addCancelAction(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                if (!finished) {
+                    cancelActions.add(action);
+                }
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * The last callback has been delivered; called on the main thread
+     */
+    void finish() {
+        Runnable action;
+        synchronized (this) {
+            finished = true;
+            cancelActions = null;
+            action = unbind;
+            unbind = null;
+        }
+        if (action != null) {
+            action.run();
+        }
+    }
+}
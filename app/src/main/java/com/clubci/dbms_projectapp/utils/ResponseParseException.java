@@ -0,0 +1,19 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.IOException;
+
+/**
+ * The server answered but the body couldn't be decoded. Unlike other
+ * IOExceptions this says nothing about the connection, so {@link ApiClient}
+ * neither retries it nor counts it against the host's circuit breaker.
+ */
+public class ResponseParseException extends IOException {
+
+    public ResponseParseException(String message) {
+        super(message);
+    }
+
+    public ResponseParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
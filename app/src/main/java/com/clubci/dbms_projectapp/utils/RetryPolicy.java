@@ -0,0 +1,70 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.util.Random;
+
+/**
+ * How {@link ApiClient} retries failed requests: up to maxAttempts tries
+ * with exponential backoff and full jitter, so clients that failed together
+ * don't all come back at the same moment.
+ *
+ * Only requests that are safe to repeat are retried: GETs, and POSTs sent
+ * with an idempotency key.
+ */
+public class RetryPolicy {
+
+    /**
+     * One try, no retries
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 500, 8000);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random = new Random();
+
+    /**
+     * @param maxAttempts tries including the first
+     * @param baseDelayMs backoff cap before the first retry; doubles per retry
+     * @param maxDelayMs  upper bound of any single wait
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt tries made so far, starting at 1
+     */
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * Wait before the next try: uniform between 0 and
+     * min(maxDelayMs, baseDelayMs * 2^(attempt - 1))
+     */
+    public long getDelayMs(int attempt) {
+        long cap = baseDelayMs << Math.min(attempt - 1, 20);
+        cap = Math.min(maxDelayMs, cap);
+        if (cap <= 0) {
+            return 0;
+        }
+        synchronized (random) {
+            return (long) (random.nextDouble() * (cap + 1));
+        }
+    }
+
+    /**
+     * Statuses that mean "try again later" rather than "this request is wrong"
+     */
+    public static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+    }
+}
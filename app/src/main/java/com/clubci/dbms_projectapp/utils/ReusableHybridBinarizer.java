@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * Derived from com.google.zxing.common.HybridBinarizer (zxing core). Changes
+ * from the original: the black point table and output BitMatrix are allocated
+ * once in the constructor and refilled by binarize() instead of being cached
+ * after the first call; createBinarizer() returns a new instance of this
+ * class; sources smaller than MINIMUM_DIMENSION are rejected rather than
+ * handed to the global histogram. calculateBlackPoints,
+ * calculateThresholdForBlock, thresholdBlock and cap keep zxing's algorithm,
+ * adapted to write into those fields.
+ */
+
+package com.clubci.dbms_projectapp.utils;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+
+/**
+ * Same local-threshold algorithm as zxing's HybridBinarizer, but the output
+ * matrix and block table are allocated once and rewritten in place.
+ *
+ * zxing's HybridBinarizer (and BinaryBitmap) cache the first matrix they
+ * compute, so they cannot be reused when the pixels underneath change. Here
+ * the caller refills the luminance buffer and calls binarize(); the matrix
+ * returned by getBlackMatrix() is the same object every time.
+ */
+public class ReusableHybridBinarizer extends GlobalHistogramBinarizer {
+
+    private static final int BLOCK_SIZE_POWER = 3;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER;
+    private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;
+    public static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+    private static final int MIN_DYNAMIC_RANGE = 24;
+
+    private final int width;
+    private final int height;
+    private final int subWidth;
+    private final int subHeight;
+    private final int[][] blackPoints;
+    private final BitMatrix matrix;
+    private boolean binarized;
+
+    public ReusableHybridBinarizer(LuminanceSource source) {
+        super(source);
+        width = source.getWidth();
+        height = source.getHeight();
+        if (width < MINIMUM_DIMENSION || height < MINIMUM_DIMENSION) {
+            throw new IllegalArgumentException("Source too small: " + width + "x" + height);
+        }
+        subWidth = (width >> BLOCK_SIZE_POWER) + ((width & BLOCK_SIZE_MASK) != 0 ? 1 : 0);
+        subHeight = (height >> BLOCK_SIZE_POWER) + ((height & BLOCK_SIZE_MASK) != 0 ? 1 : 0);
+        blackPoints = new int[subHeight][subWidth];
+        matrix = new BitMatrix(width, height);
+    }
+
+    /**
+     * Recompute the matrix from the current contents of the luminance source
+     */
+    public void binarize() {
+        byte[] luminances = getLuminanceSource().getMatrix();
+        matrix.clear();
+        calculateBlackPoints(luminances);
+        calculateThresholdForBlock(luminances);
+        binarized = true;
+    }
+
+    @Override
+    public BitMatrix getBlackMatrix() {
+        if (!binarized) {
+            binarize();
+        }
+        return matrix;
+    }
+
+    @Override
+    public Binarizer createBinarizer(LuminanceSource source) {
+        return new ReusableHybridBinarizer(source);
+    }
+
+    private void calculateThresholdForBlock(byte[] luminances) {
+        int maxYOffset = height - BLOCK_SIZE;
+        int maxXOffset = width - BLOCK_SIZE;
+        for (int y = 0; y < subHeight; y++) {
+            int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+            int top = cap(y, subHeight - 3);
+            for (int x = 0; x < subWidth; x++) {
+                int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+                int left = cap(x, subWidth - 3);
+                int sum = 0;
+                for (int z = -2; z <= 2; z++) {
+                    int[] blackRow = blackPoints[top + z];
+                    sum += blackRow[left - 2] + blackRow[left - 1] + blackRow[left]
+                            + blackRow[left + 1] + blackRow[left + 2];
+                }
+                thresholdBlock(luminances, xoffset, yoffset, sum / 25);
+            }
+        }
+    }
+
+    private void thresholdBlock(byte[] luminances, int xoffset, int yoffset, int threshold) {
+        for (int y = 0, offset = yoffset * width + xoffset; y < BLOCK_SIZE; y++, offset += width) {
+            for (int x = 0; x < BLOCK_SIZE; x++) {
+                // <= so that pure black pixels stay black with a zero threshold
+                if ((luminances[offset + x] & 0xFF) <= threshold) {
+                    matrix.set(xoffset + x, yoffset + y);
+                }
+            }
+        }
+    }
+
+    private void calculateBlackPoints(byte[] luminances) {
+        int maxYOffset = height - BLOCK_SIZE;
+        int maxXOffset = width - BLOCK_SIZE;
+        for (int y = 0; y < subHeight; y++) {
+            int yoffset = Math.min(y << BLOCK_SIZE_POWER, maxYOffset);
+            for (int x = 0; x < subWidth; x++) {
+                int xoffset = Math.min(x << BLOCK_SIZE_POWER, maxXOffset);
+                int sum = 0;
+                int min = 0xFF;
+                int max = 0;
+                for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+                    for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+                        int pixel = luminances[offset + xx] & 0xFF;
+                        sum += pixel;
+                        if (pixel < min) {
+                            min = pixel;
+                        }
+                        if (pixel > max) {
+                            max = pixel;
+                        }
+                    }
+                    if (max - min > MIN_DYNAMIC_RANGE) {
+                        // Contrast found: just sum the remaining rows
+                        for (yy++, offset += width; yy < BLOCK_SIZE; yy++, offset += width) {
+                            for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+                                sum += luminances[offset + xx] & 0xFF;
+                            }
+                        }
+                    }
+                }
+
+                int average = sum >> (BLOCK_SIZE_POWER * 2);
+                if (max - min <= MIN_DYNAMIC_RANGE) {
+                    // Flat block: assume background unless neighbours say otherwise
+                    average = min / 2;
+                    if (y > 0 && x > 0) {
+                        int averageNeighborBlackPoint = (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1])
+                                + blackPoints[y - 1][x - 1]) / 4;
+                        if (min < averageNeighborBlackPoint) {
+                            average = averageNeighborBlackPoint;
+                        }
+                    }
+                }
+                blackPoints[y][x] = average;
+            }
+        }
+    }
+
+    private static int cap(int value, int max) {
+        return value < 2 ? 2 : Math.min(value, max);
+    }
+}
@@ -0,0 +1,239 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.clubci.dbms_projectapp.models.Registration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory registration roster for the events being scanned, keyed by
+ * case-folded username, so each scan is checked with a hash lookup instead
+ * of downloading and walking the whole registration list.
+ *
+ * Rosters come from {@link DataRepository} (cached copy first, then the
+ * network) and are refreshed in the background while the index is started;
+ * refreshes are delta syncs, so they only download changed registrations.
+ * Attendance marked on this device is kept across refreshes so a response
+ * fetched before the POST cannot undo it.
+ *
+ * Main thread only.
+ */
+public class RosterIndex {
+
+    public enum Status {
+        REGISTERED,
+        ATTENDED,
+        NOT_REGISTERED
+    }
+
+    public interface LookupCallback {
+        void onResult(Status status);
+
+        void onError(String error);
+    }
+
+    private static class PendingLookup {
+        final String username;
+        final LookupCallback callback;
+
+        PendingLookup(String username, LookupCallback callback) {
+            this.username = username;
+            this.callback = callback;
+        }
+    }
+
+    private static class Roster {
+        // Case-folded username -> attended
+        final Map<String, Boolean> entries = new HashMap<>();
+        final Set<String> markedLocally = new HashSet<>();
+        final List<PendingLookup> pending = new ArrayList<>();
+        boolean loaded;
+        boolean loading;
+        RequestHandle request;
+    }
+
+    private final DataRepository repository;
+    private final long refreshIntervalMs;
+    private final Map<String, Roster> rosters = new HashMap<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean started;
+
+    private final Runnable refreshTask = new Runnable() {
+        @Override
+        public void run() {
+            for (String eventId : rosters.keySet()) {
+                load(eventId, ApiClient.Priority.LOW);
+            }
+            handler.postDelayed(this, refreshIntervalMs);
+        }
+    };
+
+    /**
+     * @param refreshIntervalMs how often loaded rosters are revalidated while started
+     */
+    public RosterIndex(DataRepository repository, long refreshIntervalMs) {
+        this.repository = repository;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Start loading an event's roster if it isn't indexed yet
+     */
+    public void preload(String eventId) {
+        if (!rosters.containsKey(eventId)) {
+            rosters.put(eventId, new Roster());
+            load(eventId, ApiClient.Priority.NORMAL);
+        }
+    }
+
+    /**
+     * Check a user against an event roster. Answers immediately when the
+     * roster is indexed, otherwise once it has loaded.
+     */
+    public void lookup(String eventId, String username, LookupCallback callback) {
+        preload(eventId);
+        Roster roster = rosters.get(eventId);
+        if (roster.loaded) {
+            callback.onResult(statusOf(roster, username));
+        } else {
+            roster.pending.add(new PendingLookup(username, callback));
+        }
+    }
+
+    /**
+     * Status from the index only
+     *
+     * @return null while the event's roster is not loaded
+     */
+    public Status peek(String eventId, String username) {
+        Roster roster = rosters.get(eventId);
+        return roster != null && roster.loaded ? statusOf(roster, username) : null;
+    }
+
+    /**
+     * Record attendance marked from this device
+     */
+    public void markAttended(String eventId, String username) {
+        Roster roster = rosters.get(eventId);
+        if (roster != null) {
+            String key = fold(username);
+            roster.markedLocally.add(key);
+            roster.entries.put(key, true);
+        }
+    }
+
+    /**
+     * Begin periodic background refreshes of the loaded rosters
+     */
+    public void start() {
+        if (!started) {
+            started = true;
+            handler.postDelayed(refreshTask, refreshIntervalMs);
+        }
+    }
+
+    /**
+     * Stop refreshing and cancel loads still in progress
+     */
+    public void stop() {
+        started = false;
+        handler.removeCallbacks(refreshTask);
+        for (Roster roster : rosters.values()) {
+            if (roster.request != null) {
+                roster.request.cancel();
+                roster.request = null;
+            }
+            roster.loading = false;
+        }
+    }
+
+    public int size(String eventId) {
+        Roster roster = rosters.get(eventId);
+        return roster != null ? roster.entries.size() : 0;
+    }
+
+    private void load(String eventId, ApiClient.Priority priority) {
+        Roster roster = rosters.get(eventId);
+        if (roster == null || roster.loading) {
+            return;
+        }
+        roster.loading = true;
+
+        roster.request = repository.syncEventRegistrations(eventId, roster.loaded, priority,
+                new DataRepository.Listener<List<Registration>>() {
+                    @Override
+                    public void onData(List<Registration> registrations, boolean fromCache) {
+                        apply(roster, registrations);
+                        if (!fromCache) {
+                            roster.loading = false;
+                        }
+                    }
+
+                    @Override
+                    public void onUnchanged() {
+                        roster.loading = false;
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        roster.loading = false;
+                        if (!roster.loaded) {
+                            // Nothing indexed; drop it so the next lookup retries
+                            rosters.remove(eventId);
+                            for (PendingLookup lookup : drainPending(roster)) {
+                                lookup.callback.onError(error);
+                            }
+                        }
+                    }
+                });
+    }
+
+    private void apply(Roster roster, List<Registration> registrations) {
+        Set<String> seen = new HashSet<>();
+        for (Registration registration : registrations) {
+            if (registration.getUsername() == null) {
+                continue;
+            }
+            String key = fold(registration.getUsername());
+            seen.add(key);
+            roster.entries.put(key, registration.isAttended() || roster.markedLocally.contains(key));
+        }
+        // Overrides marked here may not be on the server roster yet
+        for (String key : roster.markedLocally) {
+            seen.add(key);
+            roster.entries.put(key, true);
+        }
+        roster.entries.keySet().retainAll(seen);
+        roster.loaded = true;
+
+        for (PendingLookup lookup : drainPending(roster)) {
+            lookup.callback.onResult(statusOf(roster, lookup.username));
+        }
+    }
+
+    private static List<PendingLookup> drainPending(Roster roster) {
+        List<PendingLookup> callbacks = new ArrayList<>(roster.pending);
+        roster.pending.clear();
+        return callbacks;
+    }
+
+    private static Status statusOf(Roster roster, String username) {
+        Boolean attended = roster.entries.get(fold(username));
+        if (attended == null) {
+            return Status.NOT_REGISTERED;
+        }
+        return attended ? Status.ATTENDED : Status.REGISTERED;
+    }
+
+    private static String fold(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
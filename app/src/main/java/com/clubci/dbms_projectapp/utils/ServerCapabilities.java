@@ -0,0 +1,83 @@
+package com.clubci.dbms_projectapp.utils;
+
+/**
+ * Which optional endpoints the backend has, learned from responses and
+ * kept for the rest of the process so requests stop probing variants the
+ * server doesn't support.
+ */
+public class ServerCapabilities {
+
+    public enum Support {
+        UNKNOWN,
+        SUPPORTED,
+        UNSUPPORTED
+    }
+
+    private volatile Support perUserAttendance = Support.UNKNOWN;
+    private volatile Support batchAttendance = Support.UNKNOWN;
+    private volatile Support gzipRequests = Support.UNKNOWN;
+    private volatile Support deltaSync = Support.UNKNOWN;
+
+    ServerCapabilities() {
+    }
+
+    /**
+     * POST /events/{id}/attendance/{username}; the legacy alternative is
+     * POST /events/{id}/attendance with the username in the body
+     */
+    public Support getPerUserAttendance() {
+        return perUserAttendance;
+    }
+
+    void setPerUserAttendance(boolean supported) {
+        perUserAttendance = supported ? Support.SUPPORTED : Support.UNSUPPORTED;
+    }
+
+    /**
+     * POST /events/{id}/attendance/batch
+     */
+    public Support getBatchAttendance() {
+        return batchAttendance;
+    }
+
+    void setBatchAttendance(boolean supported) {
+        batchAttendance = supported ? Support.SUPPORTED : Support.UNSUPPORTED;
+    }
+
+    /**
+     * Request bodies sent with Content-Encoding: gzip
+     */
+    public Support getGzipRequests() {
+        return gzipRequests;
+    }
+
+    void setGzipRequests(boolean supported) {
+        gzipRequests = supported ? Support.SUPPORTED : Support.UNSUPPORTED;
+    }
+
+    /**
+     * GET {collection}/changes?since={watermark}, see {@link SyncDelta}
+     */
+    public Support getDeltaSync() {
+        return deltaSync;
+    }
+
+    void setDeltaSync(boolean supported) {
+        deltaSync = supported ? Support.SUPPORTED : Support.UNSUPPORTED;
+    }
+
+    /**
+     * Forget everything learned, e.g. after switching servers
+     */
+    public void reset() {
+        perUserAttendance = Support.UNKNOWN;
+        batchAttendance = Support.UNKNOWN;
+        gzipRequests = Support.UNKNOWN;
+        deltaSync = Support.UNKNOWN;
+    }
+
+    public String getSummary() {
+        return "perUserAttendance=" + perUserAttendance + ", batchAttendance=" + batchAttendance
+                + ", gzipRequests=" + gzipRequests + ", deltaSync=" + deltaSync;
+    }
+}
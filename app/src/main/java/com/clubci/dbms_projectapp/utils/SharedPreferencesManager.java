@@ -2,6 +2,16 @@ package com.clubci.dbms_projectapp.utils;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.util.Base64;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class SharedPreferencesManager {
     private static final String PREF_NAME = "ClubCIPrefs";
@@ -12,10 +22,13 @@ public class SharedPreferencesManager {
     private static final String KEY_FULL_NAME = "fullName";
     private static final String KEY_IS_LOGGED_IN = "isLoggedIn";
     private static final String KEY_DARK_MODE = "darkMode";
+    private static final String KEY_QR_KEYS = "qrKeys";
+    private static final String TAG = "SharedPreferencesManager";
 
     private static SharedPreferencesManager instance;
     private final SharedPreferences sharedPreferences;
     private final SharedPreferences.Editor editor;
+    private final KeystoreCipher qrKeyCipher = new KeystoreCipher("clubci-qr-keys");
 
     private SharedPreferencesManager(Context context) {
         sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
@@ -67,6 +80,60 @@ public class SharedPreferencesManager {
         return "admin".equalsIgnoreCase(getRole());
     }
 
+    /**
+     * Store the pass signing keys from the backend, sealed with a Keystore
+     * key so the secrets never sit in the preferences file in the clear.
+     * Uses the Keystore; call off the main thread.
+     *
+     * @param keys array of {"id": n, "secret": "base64"}
+     */
+    public void saveQrKeys(JSONArray keys) {
+        try {
+            editor.putString(KEY_QR_KEYS, qrKeyCipher.seal(keys.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            // Not kept at all rather than kept in the clear
+            AppLog.w(TAG, "Couldn't seal pass keys", e);
+            editor.remove(KEY_QR_KEYS);
+        }
+        editor.apply();
+    }
+
+    /**
+     * Pass signing keys by id, empty if none were stored or they can't be
+     * unsealed. Uses the Keystore; call off the main thread.
+     */
+    public Map<Integer, byte[]> getQrKeys() {
+        String stored = sharedPreferences.getString(KEY_QR_KEYS, null);
+        if (stored == null) {
+            return new HashMap<>();
+        }
+        try {
+            return parseQrKeys(new JSONArray(new String(qrKeyCipher.open(stored), StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException | JSONException e) {
+            AppLog.w(TAG, "Dropping unreadable pass keys", e);
+            editor.remove(KEY_QR_KEYS);
+            editor.apply();
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * @param keys array of {"id": n, "secret": "base64"}
+     * @return secrets by key id, empty if any entry is malformed
+     */
+    public static Map<Integer, byte[]> parseQrKeys(JSONArray keys) {
+        Map<Integer, byte[]> parsed = new HashMap<>();
+        try {
+            for (int i = 0; i < keys.length(); i++) {
+                JSONObject key = keys.getJSONObject(i);
+                parsed.put(key.getInt("id"), Base64.decode(key.getString("secret"), Base64.DEFAULT));
+            }
+        } catch (JSONException | IllegalArgumentException e) {
+            parsed.clear();
+        }
+        return parsed;
+    }
+
     public void setDarkMode(boolean enabled) {
         editor.putBoolean(KEY_DARK_MODE, enabled);
         editor.apply();
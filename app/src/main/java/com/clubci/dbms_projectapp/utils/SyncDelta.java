@@ -0,0 +1,110 @@
+package com.clubci.dbms_projectapp.utils;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One response of a delta sync ("changes") endpoint: the rows inserted or
+ * updated since the requested watermark, the ids of rows deleted since
+ * then, and the watermark to ask from next time.
+ *
+ * <pre>
+ * {"watermark": "1718031234567", "full": false,
+ *  "changes": [ {...}, ... ], "deleted": ["id", ...]}
+ * </pre>
+ *
+ * The watermark is opaque to the client (an updatedAt or a version). With
+ * full set, which is the case for the first sync or when the server no
+ * longer keeps tombstones back to the watermark, changes is the whole
+ * collection and rows missing from it are gone.
+ */
+public class SyncDelta<T> {
+
+    private final String watermark;
+    private final boolean full;
+    private final List<T> changes;
+    private final List<String> deletedIds;
+
+    public SyncDelta(String watermark, boolean full, List<T> changes, List<String> deletedIds) {
+        this.watermark = watermark;
+        this.full = full;
+        this.changes = Collections.unmodifiableList(changes);
+        this.deletedIds = Collections.unmodifiableList(deletedIds);
+    }
+
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<T> getChanges() {
+        return changes;
+    }
+
+    public List<String> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Decode a delta, reading each changed row with itemReader
+     */
+    public static <T> SyncDelta<T> fromJsonReader(JsonReader reader, JsonStreamDecoder.ItemReader<T> itemReader)
+            throws IOException {
+        String watermark = null;
+        boolean full = false;
+        List<T> changes = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "watermark":
+                    watermark = JsonStreamDecoder.nextStringOrNull(reader);
+                    break;
+                case "full":
+                    full = reader.nextBoolean();
+                    break;
+                case "changes":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        changes.add(itemReader.read(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "deleted":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        String id = JsonStreamDecoder.nextStringOrNull(reader);
+                        if (id != null) {
+                            deletedIds.add(id);
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+
+        if (watermark == null) {
+            // Nothing to resume from; applying it would lose track of later changes
+            throw new ResponseParseException("Sync response without a watermark");
+        }
+        return new SyncDelta<>(watermark, full, changes, deletedIds);
+    }
+}
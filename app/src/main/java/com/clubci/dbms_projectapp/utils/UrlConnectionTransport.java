@@ -0,0 +1,256 @@
+package com.clubci.dbms_projectapp.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Default transport on top of the platform HttpURLConnection.
+ *
+ * Connections are never disconnect()ed: once a response body has been fully
+ * read and closed, the platform stack keeps the socket in its keep-alive pool
+ * and the next request to the same host skips TCP/TLS setup. HTTP/2 is
+ * negotiated by the platform over TLS (ALPN) where the server supports it;
+ * plain http:// hosts stay on HTTP/1.1 keep-alive.
+ *
+ * The platform pool is a process-wide setting, configured once when this
+ * class loads. It is not observable either, so the idle and reuse numbers
+ * in {@link #getStats()} are estimates derived from request start/release
+ * events: they assume a released connection stays pooled, which the
+ * platform doesn't guarantee.
+ *
+ * Per-endpoint phase timings go to {@link Metrics}. HttpURLConnection does
+ * not expose DNS separately, so "http.connect" includes the lookup and is
+ * near zero when a pooled connection is reused.
+ *
+ * Responses are requested with Accept-Encoding: gzip, deflate and decoded
+ * here rather than by the platform, which would hide the wire size. The
+ * body handed to the caller is always decoded; "http.bytes_in" is what
+ * crossed the network and "http.compression" the wire size as a
+ * percentage of the decoded size.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final int DEFAULT_MAX_IDLE_PER_HOST = 5;
+    private static final String SELECTED_PROTOCOL_HEADER = "X-Android-Selected-Protocol";
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final int connectTimeoutMs;
+    private final int readTimeoutMs;
+    private final int maxIdlePerHost;
+
+    static {
+        // System properties are global; set them once rather than per instance
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", String.valueOf(DEFAULT_MAX_IDLE_PER_HOST));
+    }
+
+    private final Map<String, AtomicInteger> idleByHost = new ConcurrentHashMap<>();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong estimatedReuses = new AtomicLong();
+    private volatile String lastProtocol = "http/1.1";
+
+    public UrlConnectionTransport(int connectTimeoutMs, int readTimeoutMs) {
+        this(connectTimeoutMs, readTimeoutMs, DEFAULT_MAX_IDLE_PER_HOST);
+    }
+
+    /**
+     * @param maxIdlePerHost cap for the idle connection estimate; the platform
+     *                       pool itself keeps DEFAULT_MAX_IDLE_PER_HOST
+     */
+    public UrlConnectionTransport(int connectTimeoutMs, int readTimeoutMs, int maxIdlePerHost) {
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.maxIdlePerHost = maxIdlePerHost;
+    }
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        URL url = new URL(request.getUrl());
+        String hostKey = url.getProtocol() + "://" + url.getHost() + ":" + url.getPort();
+
+        totalRequests.incrementAndGet();
+        if (acquireIdle(hostKey)) {
+            estimatedReuses.incrementAndGet();
+        }
+        activeConnections.incrementAndGet();
+
+        String endpoint = Metrics.endpointName(request.getMethod(), request.getUrl());
+        Metrics.counter("http.requests " + endpoint).increment();
+        long start = System.nanoTime();
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(request.getMethod());
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setRequestProperty("Connection", "keep-alive");
+            connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            byte[] body = request.getBody();
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+            }
+            connection.connect();
+            Metrics.timer("http.connect " + endpoint).recordSince(start);
+
+            long sent = System.nanoTime();
+            if (body != null) {
+                OutputStream os = connection.getOutputStream();
+                os.write(body);
+                os.close();
+                Metrics.histogram("http.bytes_out " + endpoint, "B").record(body.length);
+            }
+
+            int code = connection.getResponseCode();
+            Metrics.timer("http.ttfb " + endpoint).recordSince(sent);
+            Metrics.counter("http.status " + code / 100 + "xx").increment();
+            String protocol = connection.getHeaderField(SELECTED_PROTOCOL_HEADER);
+            if (protocol != null) {
+                lastProtocol = protocol;
+            }
+
+            InputStream stream = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            MeteredInputStream metered = stream != null ? new MeteredInputStream(stream) : null;
+            MeteredInputStream decoded = metered != null
+                    ? decode(metered, connection.getContentEncoding()) : null;
+            return new Response(code, connection.getHeaderFields(), decoded, () -> {
+                if (metered != null) {
+                    Metrics.timer("http.body_read " + endpoint).record(metered.readNanos);
+                    Metrics.histogram("http.bytes_in " + endpoint, "B").record(metered.bytes);
+                }
+                if (decoded != metered && decoded.bytes > 0) {
+                    Metrics.histogram("http.bytes_decoded " + endpoint, "B").record(decoded.bytes);
+                    Metrics.histogram("http.compression " + endpoint, "%")
+                            .record(metered.bytes * 100 / decoded.bytes);
+                }
+                Metrics.timer("http.total " + endpoint).recordSince(start);
+                release(hostKey);
+            });
+        } catch (IOException e) {
+            Metrics.counter("http.failures " + endpoint).increment();
+            // Broken connection: do not count it as reusable
+            activeConnections.decrementAndGet();
+            if (connection != null) {
+                connection.disconnect();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public ConnectionPoolStats getStats() {
+        int idle = 0;
+        for (AtomicInteger count : idleByHost.values()) {
+            idle += count.get();
+        }
+        return new ConnectionPoolStats(activeConnections.get(), idle, totalRequests.get(),
+                estimatedReuses.get(), lastProtocol);
+    }
+
+    private boolean acquireIdle(String hostKey) {
+        AtomicInteger idle = idleByHost.get(hostKey);
+        if (idle == null) {
+            return false;
+        }
+        while (true) {
+            int current = idle.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (idle.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(String hostKey) {
+        activeConnections.decrementAndGet();
+        AtomicInteger idle = idleByHost.get(hostKey);
+        if (idle == null) {
+            idleByHost.putIfAbsent(hostKey, new AtomicInteger());
+            idle = idleByHost.get(hostKey);
+        }
+        while (true) {
+            int current = idle.get();
+            if (current >= maxIdlePerHost || idle.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wrap the wire stream in a decoder for the response's Content-Encoding.
+     * Returns the stream itself when the body isn't encoded.
+     */
+    private static MeteredInputStream decode(MeteredInputStream wire, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return wire;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.US);
+        try {
+            if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+                return new MeteredInputStream(new GZIPInputStream(wire));
+            }
+            if (encoding.equals("deflate")) {
+                return new MeteredInputStream(new InflaterInputStream(wire));
+            }
+        } catch (EOFException e) {
+            // Encoded but empty body, e.g. a 204 or 304 from some servers
+            return new MeteredInputStream(new ByteArrayInputStream(new byte[0]));
+        }
+        return wire;
+    }
+
+    /**
+     * Counts body bytes and the time spent blocked reading them
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+        long bytes;
+        long readNanos;
+
+        MeteredInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            readNanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int n = super.read(buffer, offset, length);
+            readNanos += System.nanoTime() - start;
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+    }
+}
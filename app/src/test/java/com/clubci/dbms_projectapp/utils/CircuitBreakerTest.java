@@ -0,0 +1,121 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class CircuitBreakerTest {
+
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MS = 30_000;
+
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        breaker = new CircuitBreaker("test-host", THRESHOLD, OPEN_MS);
+    }
+
+    @Test
+    public void staysClosedBelowThreshold() {
+        fail(THRESHOLD - 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        fail(THRESHOLD - 1);
+        breaker.recordSuccess();
+        fail(THRESHOLD - 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensAtThresholdAndRejects() {
+        fail(THRESHOLD);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpensAfterOpenPeriodWithSingleProbe() {
+        fail(THRESHOLD);
+        advance(OPEN_MS);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void probeSuccessCloses() {
+        fail(THRESHOLD);
+        advance(OPEN_MS);
+        breaker.allowRequest();
+
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void probeFailureReopens() {
+        fail(THRESHOLD);
+        advance(OPEN_MS);
+        breaker.allowRequest();
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void releaseFreesProbeWithoutChangingState() {
+        fail(THRESHOLD);
+        advance(OPEN_MS);
+        breaker.allowRequest();
+
+        breaker.release();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void stuckProbeIsReplacedAfterOpenPeriod() {
+        fail(THRESHOLD);
+        advance(OPEN_MS);
+        breaker.allowRequest();
+
+        advance(OPEN_MS);
+
+        assertTrue(breaker.allowRequest());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.allowRequest();
+            breaker.recordFailure();
+        }
+    }
+
+    private static void advance(long ms) {
+        ShadowSystemClock.advanceBy(Duration.ofMillis(ms));
+    }
+}
@@ -0,0 +1,252 @@
+package com.clubci.dbms_projectapp.utils;
+
+import com.clubci.dbms_projectapp.models.Event;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class EventPagerTest {
+
+    private static final int MAX_REQUESTS = 50;
+
+    @Test
+    public void pagedServer_loadsActiveFirstThenEveryOtherStatus() {
+        FakeServer server = new FakeServer(true, true, catalogue());
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 3, 1, true, listener);
+
+        pager.refresh();
+        server.serveAll();
+        assertEquals(Arrays.asList("e2", "e4", "e7"), listener.ids());
+        assertTrue(listener.hasMore);
+
+        loadToEnd(pager, server, listener);
+
+        assertEquals(Arrays.asList("e2", "e4", "e7", "e1", "e3", "e5", "e6"), listener.ids());
+        assertFalse(listener.hasMore);
+    }
+
+    @Test
+    public void serverIgnoringPaging_splitsWholeListLocally() {
+        FakeServer server = new FakeServer(false, false, catalogue());
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 3, 1, true, listener);
+
+        pager.refresh();
+        server.serveAll();
+        assertEquals(Arrays.asList("e2", "e4", "e5", "e7"), listener.ids());
+
+        loadToEnd(pager, server, listener);
+
+        assertEquals(Arrays.asList("e2", "e4", "e5", "e7", "e1", "e3", "e6"), listener.ids());
+        assertFalse(listener.hasMore);
+        assertEquals(1, server.requests);
+    }
+
+    @Test
+    public void serverIgnoringPaging_exactlyOnePageDoesNotLoop() {
+        FakeServer server = new FakeServer(false, false, Arrays.asList(
+                event("e1", "UPCOMING"), event("e2", "COMPLETED"), event("e3", "CANCELLED")));
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 3, 1, true, listener);
+
+        pager.refresh();
+        server.serveAll();
+
+        assertEquals(Arrays.asList("e1", "e2", "e3"), listener.ids());
+        assertFalse(listener.hasMore);
+        assertEquals(2, server.requests);
+    }
+
+    @Test
+    public void serverIgnoringOffsetOnly_fetchesRestOnce() {
+        FakeServer server = new FakeServer(true, false, Arrays.asList(
+                event("a1", "UPCOMING"), event("c1", "COMPLETED"), event("a2", "ONGOING"),
+                event("c2", "CANCELLED"), event("c3", null)));
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 2, 1, true, listener);
+
+        pager.refresh();
+        server.serveAll();
+        loadToEnd(pager, server, listener);
+
+        assertEquals(Arrays.asList("a1", "a2", "c1", "c2", "c3"), listener.ids());
+        assertFalse(listener.hasMore);
+        assertEquals(3, server.requests);
+    }
+
+    @Test
+    public void withoutActiveFirst_pagesUnfiltered() {
+        FakeServer server = new FakeServer(true, true, catalogue());
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 3, 1, false, listener);
+
+        pager.refresh();
+        server.serveAll();
+        loadToEnd(pager, server, listener);
+
+        assertEquals(Arrays.asList("e1", "e2", "e3", "e4", "e5", "e6", "e7"), listener.ids());
+        assertFalse(listener.hasMore);
+        for (String endpoint : server.endpoints) {
+            assertFalse(endpoint, endpoint.contains("status="));
+        }
+    }
+
+    @Test
+    public void error_isReportedAndPagingCanResume() {
+        FakeServer server = new FakeServer(true, true, catalogue());
+        RecordingListener listener = new RecordingListener();
+        EventPager pager = new EventPager(server, 3, 1, false, listener);
+
+        pager.refresh();
+        server.failNext = "Network error: timeout";
+        server.serveAll();
+        assertEquals("Network error: timeout", listener.error);
+        assertFalse(pager.isLoading());
+
+        pager.onScrolled(0);
+        server.serveAll();
+        assertEquals(Arrays.asList("e1", "e2", "e3"), listener.ids());
+    }
+
+    private static void loadToEnd(EventPager pager, FakeServer server, RecordingListener listener) {
+        for (int i = 0; i < MAX_REQUESTS && listener.hasMore; i++) {
+            pager.onScrolled(listener.events.size() - 1);
+            server.serveAll();
+        }
+    }
+
+    private static List<Event> catalogue() {
+        return Arrays.asList(
+                event("e1", "COMPLETED"),
+                event("e2", "UPCOMING"),
+                event("e3", "CANCELLED"),
+                event("e4", "ONGOING"),
+                event("e5", null),
+                event("e6", "COMPLETED"),
+                event("e7", "UPCOMING"));
+    }
+
+    private static Event event(String id, String status) {
+        Event event = new Event();
+        event.setEventId(id);
+        event.setStatus(status);
+        return event;
+    }
+
+    private static class RecordingListener implements EventPager.Listener {
+        List<Event> events = Collections.emptyList();
+        boolean hasMore = true;
+        String error;
+
+        @Override
+        public void onEventsLoaded(List<Event> events, boolean hasMore) {
+            this.events = events;
+            this.hasMore = hasMore;
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+        }
+
+        List<String> ids() {
+            List<String> ids = new ArrayList<>();
+            for (Event event : events) {
+                ids.add(event.getEventId());
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Queues requests and answers them from a fixed catalogue, honouring the
+     * status filter and offset/limit only when told to
+     */
+    private static class FakeServer implements EventPager.PageSource {
+        private final boolean honoursStatus;
+        private final boolean honoursPaging;
+        private final List<Event> catalogue;
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        final List<String> endpoints = new ArrayList<>();
+        int requests;
+        String failNext;
+
+        FakeServer(boolean honoursStatus, boolean honoursPaging, List<Event> catalogue) {
+            this.honoursStatus = honoursStatus;
+            this.honoursPaging = honoursPaging;
+            this.catalogue = catalogue;
+        }
+
+        @Override
+        public RequestHandle fetch(String endpoint, ApiClient.TypedCallback<List<Event>> callback) {
+            endpoints.add(endpoint);
+            queue.add(() -> {
+                if (failNext != null) {
+                    String error = failNext;
+                    failNext = null;
+                    callback.onError(error);
+                } else {
+                    callback.onSuccess(respond(endpoint));
+                }
+            });
+            return new RequestHandle();
+        }
+
+        void serveAll() {
+            while (!queue.isEmpty()) {
+                if (++requests > MAX_REQUESTS) {
+                    throw new AssertionError("Pager kept requesting: " + endpoints);
+                }
+                queue.remove().run();
+            }
+        }
+
+        private List<Event> respond(String endpoint) {
+            Map<String, String> query = parseQuery(endpoint);
+            List<Event> matching = new ArrayList<>();
+            String status = query.get("status");
+            for (Event event : catalogue) {
+                if (!honoursStatus || status == null
+                        || Arrays.asList(status.split(",")).contains(event.getStatus())) {
+                    matching.add(event);
+                }
+            }
+            if (!honoursPaging) {
+                return matching;
+            }
+            int offset = Integer.parseInt(query.get("offset"));
+            int limit = Integer.parseInt(query.get("limit"));
+            int from = Math.min(offset, matching.size());
+            return new ArrayList<>(matching.subList(from, Math.min(from + limit, matching.size())));
+        }
+
+        private static Map<String, String> parseQuery(String endpoint) {
+            Map<String, String> query = new HashMap<>();
+            int start = endpoint.indexOf('?');
+            if (start < 0) {
+                return query;
+            }
+            for (String pair : endpoint.substring(start + 1).split("&")) {
+                int eq = pair.indexOf('=');
+                query.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+            return query;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class JsonStreamDecoderTest {
+
+    @Test
+    public void readArray_emitsElementsInOrder() throws IOException {
+        List<String> items = new ArrayList<>();
+
+        int count = JsonStreamDecoder.readArray(json("[\"a\", 2, true, null]"),
+                JsonStreamDecoder::nextStringOrNull, items::add);
+
+        assertEquals(4, count);
+        assertEquals(Arrays.asList("a", "2", "true", null), items);
+    }
+
+    @Test
+    public void readArray_emptyArray() throws IOException {
+        List<String> items = new ArrayList<>();
+
+        assertEquals(0, JsonStreamDecoder.readArray(json("[]"), JsonStreamDecoder::nextStringOrNull, items::add));
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    public void readArray_objectInsteadOfArrayIsMalformed() {
+        IOException e = assertThrows(ResponseParseException.class, () -> JsonStreamDecoder.readArray(
+                json("{\"message\": \"oops\"}"), JsonStreamDecoder::nextStringOrNull, item -> { }));
+
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    public void readArray_syntaxErrorIsParseError() {
+        IOException e = assertThrows(ResponseParseException.class, () -> JsonStreamDecoder.readArray(
+                json("[\"a\" \"b\"]"), JsonStreamDecoder::nextStringOrNull, item -> { }));
+
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    public void readArray_truncatedBodyFailsAsStreamError() {
+        // A body cut short is most likely a dropped connection, not bad JSON
+        IOException e = assertThrows(IOException.class, () -> JsonStreamDecoder.readArray(
+                json("[\"a\", \"b\""), JsonStreamDecoder::nextStringOrNull, item -> { }));
+
+        assertFalse(e instanceof ResponseParseException);
+    }
+
+    @Test
+    public void readValue_wrongTokenIsParseError() {
+        assertThrows(ResponseParseException.class, () -> JsonStreamDecoder.readValue(
+                json("[1]"), reader -> {
+                    reader.beginObject();
+                    return null;
+                }));
+    }
+
+    @Test
+    public void nextStringOrNull_skipsNestedValues() throws IOException {
+        List<String> items = new ArrayList<>();
+
+        JsonStreamDecoder.readArray(json("[{\"a\": 1}, [1, 2], \"x\"]"), JsonStreamDecoder::nextStringOrNull,
+                items::add);
+
+        assertEquals(Arrays.asList(null, null, "x"), items);
+    }
+
+    @Test
+    public void nextInt_fallsBackToDefault() throws IOException {
+        List<Integer> items = new ArrayList<>();
+
+        JsonStreamDecoder.readArray(json("[3, \"7\", 2.9, \"seven\", null]"),
+                reader -> JsonStreamDecoder.nextInt(reader, -1), items::add);
+
+        assertEquals(Arrays.asList(3, 7, 2, -1, -1), items);
+    }
+
+    @Test
+    public void nextTimestamp_nullForDateStrings() throws IOException {
+        List<Long> items = new ArrayList<>();
+
+        JsonStreamDecoder.readArray(json("[1718031234567, \"2024-06-10T12:00:00Z\"]"),
+                JsonStreamDecoder::nextTimestamp, items::add);
+
+        assertEquals(Long.valueOf(1718031234567L), items.get(0));
+        assertNull(items.get(1));
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package com.clubci.dbms_projectapp.utils;
+
+import com.clubci.dbms_projectapp.models.Registration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class LocalStoreTest {
+
+    private LocalStore store;
+
+    @Before
+    public void setUp() {
+        store = new LocalStore(RuntimeEnvironment.getApplication());
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void userAndEventListsKeepTheirOwnOrder() {
+        Registration alice = registration("r1", "e1", "alice", "Launch");
+        Registration bob = registration("r2", "e1", "bob", "Launch");
+        Registration aliceOther = registration("r3", "e2", "alice", "Meetup");
+
+        store.replaceRegistrationsForEvent("e1", Arrays.asList(bob, alice));
+        store.replaceRegistrationsForUser("alice", Arrays.asList(aliceOther, alice));
+
+        assertEquals(Arrays.asList("r2", "r1"), ids(store.getRegistrationsForEvent("e1")));
+        assertEquals(Arrays.asList("r3", "r1"), ids(store.getRegistrationsForUser("alice")));
+    }
+
+    @Test
+    public void otherScopeWriteDoesNotChangeStoredList() {
+        Registration alice = registration("r1", "e1", "alice", "Launch");
+        Registration bob = registration("r2", "e1", "bob", "Launch");
+        store.replaceRegistrationsForEvent("e1", Arrays.asList(bob, alice));
+
+        store.replaceRegistrationsForUser("alice", Arrays.asList(registration("r1", "e1", "alice", "Renamed")));
+
+        assertFalse(store.replaceRegistrationsForEvent("e1", Arrays.asList(bob, alice)));
+        assertEquals("Launch", store.getRegistrationsForEvent("e1").get(1).getEventName());
+    }
+
+    @Test
+    public void replacingOneScopeLeavesTheOtherAlone() {
+        Registration alice = registration("r1", "e1", "alice", "Launch");
+        store.replaceRegistrationsForEvent("e1", Arrays.asList(alice));
+        store.replaceRegistrationsForUser("alice", Arrays.asList(alice));
+
+        assertTrue(store.replaceRegistrationsForUser("alice", Arrays.<Registration>asList()));
+
+        assertTrue(store.getRegistrationsForUser("alice").isEmpty());
+        assertEquals(Arrays.asList("r1"), ids(store.getRegistrationsForEvent("e1")));
+    }
+
+    private static Registration registration(String id, String eventId, String username, String eventName) {
+        Registration registration = new Registration(eventId, username);
+        registration.setRegistrationId(id);
+        registration.setEventName(eventName);
+        return registration;
+    }
+
+    private static List<String> ids(List<Registration> registrations) {
+        String[] ids = new String[registrations.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = registrations.get(i).getRegistrationId();
+        }
+        return Arrays.asList(ids);
+    }
+}
@@ -0,0 +1,39 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsTest {
+
+    @Test
+    public void endpointName_keepsRouteWords() {
+        assertEquals("GET /events/all", Metrics.endpointName("GET", "/events/all"));
+        assertEquals("GET /auth/qr-keys", Metrics.endpointName("GET", "/auth/qr-keys"));
+    }
+
+    @Test
+    public void endpointName_replacesIds() {
+        assertEquals("POST /events/{}/attendance/{}",
+                Metrics.endpointName("POST", "/events/42/attendance/alice%40example.com"));
+        assertEquals("POST /events/{}/attendance/batch", Metrics.endpointName("POST", "/events/evt-7/attendance/batch"));
+    }
+
+    @Test
+    public void endpointName_dropsQuery() {
+        assertEquals("GET /events/all", Metrics.endpointName("GET", "/events/all?offset=20&limit=20"));
+        assertEquals("GET /events/changes", Metrics.endpointName("GET", "/events/changes?since=1718031234567"));
+    }
+
+    @Test
+    public void endpointName_stripsSchemeAndHost() {
+        assertEquals("GET /events/{}/registrations",
+                Metrics.endpointName("GET", "http://10.0.0.1:3000/events/42/registrations?x=1"));
+        assertEquals("GET /", Metrics.endpointName("GET", "https://example.com"));
+    }
+
+    @Test
+    public void endpointName_ignoresEmptySegments() {
+        assertEquals("DELETE /events/{}", Metrics.endpointName("DELETE", "//events//42/"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QrPayloadCodecTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OTHER_KEY = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+    private static final int KEY_ID = 7;
+    private static final long ISSUED_AT = 1718031234L;
+
+    @Test
+    public void base45_matchesRfcExamples() {
+        assertEquals("BB8", QrPayloadCodec.base45Encode(ascii("AB")));
+        assertEquals("%69 VD92EX0", QrPayloadCodec.base45Encode(ascii("Hello!!")));
+        assertEquals("UJCLQE7W581", QrPayloadCodec.base45Encode(ascii("base-45")));
+        assertArrayEquals(ascii("ietf!"), QrPayloadCodec.base45Decode("QED8WEX0"));
+    }
+
+    @Test
+    public void base45_roundTripsEveryByteValue() {
+        byte[] data = new byte[257];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        assertArrayEquals(data, QrPayloadCodec.base45Decode(QrPayloadCodec.base45Encode(data)));
+    }
+
+    @Test
+    public void base45_rejectsInvalidText() {
+        assertNull(QrPayloadCodec.base45Decode("A"));       // dangling character
+        assertNull(QrPayloadCodec.base45Decode("GGW"));     // above 0xFFFF
+        assertNull(QrPayloadCodec.base45Decode("ab~"));     // outside the alphabet
+    }
+
+    @Test
+    public void decode_verifiesPassSignedWithKnownKey() throws GeneralSecurityException {
+        String pass = QrPayloadCodec.encode("evt-42", "alice", ISSUED_AT, KEY_ID, KEY);
+
+        QrPayloadCodec.Payload payload = QrPayloadCodec.decode(pass, keys(KEY_ID, KEY));
+
+        assertNotNull(payload);
+        assertTrue(payload.isVerified());
+        assertEquals("evt-42", payload.getEventId());
+        assertEquals("alice", payload.getUsername());
+        assertEquals(ISSUED_AT, payload.getIssuedAtSeconds());
+        assertEquals(KEY_ID, payload.getKeyId());
+    }
+
+    @Test
+    public void decode_rejectsTamperedSignature() throws GeneralSecurityException {
+        String pass = QrPayloadCodec.encode("evt-42", "alice", ISSUED_AT, KEY_ID, KEY);
+        byte[] bytes = QrPayloadCodec.base45Decode(pass.substring(QrPayloadCodec.PREFIX.length()));
+        bytes[bytes.length - 1] ^= 0x01;
+        String tampered = QrPayloadCodec.PREFIX + QrPayloadCodec.base45Encode(bytes);
+
+        assertNull(QrPayloadCodec.decode(tampered, keys(KEY_ID, KEY)));
+    }
+
+    @Test
+    public void decode_rejectsTamperedUsername() throws GeneralSecurityException {
+        String pass = QrPayloadCodec.encode("evt-42", "alice", ISSUED_AT, KEY_ID, KEY);
+        byte[] bytes = QrPayloadCodec.base45Decode(pass.substring(QrPayloadCodec.PREFIX.length()));
+        // First byte of the username: header(6) + length(1) + "evt-42"(6) + length(1)
+        bytes[14] = 'b';
+        String tampered = QrPayloadCodec.PREFIX + QrPayloadCodec.base45Encode(bytes);
+
+        assertNull(QrPayloadCodec.decode(tampered, keys(KEY_ID, KEY)));
+    }
+
+    @Test
+    public void decode_rejectsWrongKey() throws GeneralSecurityException {
+        String pass = QrPayloadCodec.encode("evt-42", "alice", ISSUED_AT, KEY_ID, KEY);
+
+        assertNull(QrPayloadCodec.decode(pass, keys(KEY_ID, OTHER_KEY)));
+    }
+
+    @Test
+    public void decode_unknownKeyIsUnverified() throws GeneralSecurityException {
+        String pass = QrPayloadCodec.encode("evt-42", "alice", ISSUED_AT, KEY_ID, KEY);
+
+        QrPayloadCodec.Payload payload = QrPayloadCodec.decode(pass, keys(KEY_ID + 1, KEY));
+
+        assertNotNull(payload);
+        assertFalse(payload.isVerified());
+        assertEquals("alice", payload.getUsername());
+        assertFalse(QrPayloadCodec.decode(pass, null).isVerified());
+    }
+
+    @Test
+    public void decode_rejectsMalformedPasses() {
+        assertNull(QrPayloadCodec.decode("{\"username\":\"alice\"}", keys(KEY_ID, KEY)));
+        assertNull(QrPayloadCodec.decode(QrPayloadCodec.PREFIX + "BB8", keys(KEY_ID, KEY)));
+        assertNull(QrPayloadCodec.decode(QrPayloadCodec.PREFIX + "not base45!", keys(KEY_ID, KEY)));
+    }
+
+    private static QrPayloadCodec.KeyProvider keys(int keyId, byte[] key) {
+        return id -> id == keyId ? key : null;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
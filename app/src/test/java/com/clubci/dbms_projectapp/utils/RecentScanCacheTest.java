@@ -0,0 +1,81 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RecentScanCacheTest {
+
+    private static final long WINDOW_MS = 10_000;
+
+    @Test
+    public void repeatWithinWindowIsDuplicate() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        assertFalse(cache.isDuplicate("e1", "alice", 1_000));
+        assertTrue(cache.isDuplicate("e1", "alice", 5_000));
+        assertEquals(1, cache.getSuppressedCount());
+    }
+
+    @Test
+    public void usernamesAreCaseAndSpaceInsensitive() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        assertFalse(cache.isDuplicate("e1", "Alice", 0));
+        assertTrue(cache.isDuplicate("e1", " alice ", 1));
+    }
+
+    @Test
+    public void sameUserAtAnotherEventIsNotDuplicate() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        assertFalse(cache.isDuplicate("e1", "alice", 0));
+        assertFalse(cache.isDuplicate("e2", "alice", 1));
+    }
+
+    @Test
+    public void heldCodeExpiresAfterWindowFromFirstScan() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        assertFalse(cache.isDuplicate("e1", "alice", 0));
+        assertTrue(cache.isDuplicate("e1", "alice", 6_000));
+        // Repeats don't extend the window
+        assertFalse(cache.isDuplicate("e1", "alice", WINDOW_MS));
+    }
+
+    @Test
+    public void forgottenScanIsHandledAgain() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        assertFalse(cache.isDuplicate("e1", "alice", 0));
+        cache.forget("e1", "ALICE");
+
+        assertFalse(cache.isDuplicate("e1", "alice", 1_000));
+        assertEquals(0, cache.getSuppressedCount());
+    }
+
+    @Test
+    public void leastRecentScanIsEvicted() {
+        RecentScanCache cache = new RecentScanCache(2, WINDOW_MS);
+
+        cache.isDuplicate("e1", "alice", 0);
+        cache.isDuplicate("e1", "bob", 1);
+        cache.isDuplicate("e1", "carol", 2);
+
+        assertFalse(cache.isDuplicate("e1", "alice", 3));
+        assertTrue(cache.isDuplicate("e1", "carol", 4));
+    }
+
+    @Test
+    public void countSuppressedAddsToTotal() {
+        RecentScanCache cache = new RecentScanCache(16, WINDOW_MS);
+
+        cache.countSuppressed();
+        cache.isDuplicate("e1", "alice", 0);
+        cache.isDuplicate("e1", "alice", 1);
+
+        assertEquals(2, cache.getSuppressedCount());
+    }
+}
@@ -0,0 +1,82 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    private static final int SAMPLES = 500;
+
+    @Test
+    public void canRetry_untilMaxAttempts() {
+        RetryPolicy policy = new RetryPolicy(3, 500, 8000);
+
+        assertTrue(policy.canRetry(1));
+        assertTrue(policy.canRetry(2));
+        assertFalse(policy.canRetry(3));
+    }
+
+    @Test
+    public void none_neverRetries() {
+        assertEquals(1, RetryPolicy.NONE.getMaxAttempts());
+        assertFalse(RetryPolicy.NONE.canRetry(1));
+    }
+
+    @Test
+    public void maxAttempts_isAtLeastOne() {
+        assertEquals(1, new RetryPolicy(0, 500, 8000).getMaxAttempts());
+    }
+
+    @Test
+    public void delay_staysWithinDoublingCap() {
+        RetryPolicy policy = new RetryPolicy(10, 500, 8000);
+
+        assertDelaysWithin(policy, 1, 500);
+        assertDelaysWithin(policy, 2, 1000);
+        assertDelaysWithin(policy, 3, 2000);
+        assertDelaysWithin(policy, 5, 8000);
+        assertDelaysWithin(policy, 9, 8000);
+    }
+
+    @Test
+    public void delay_isJittered() {
+        RetryPolicy policy = new RetryPolicy(3, 500, 8000);
+        long first = policy.getDelayMs(2);
+        boolean varied = false;
+        for (int i = 0; i < SAMPLES && !varied; i++) {
+            varied = policy.getDelayMs(2) != first;
+        }
+
+        assertTrue(varied);
+    }
+
+    @Test
+    public void delay_zeroWithoutBase() {
+        assertEquals(0, new RetryPolicy(3, 0, 8000).getDelayMs(2));
+    }
+
+    @Test
+    public void delay_hugeAttemptDoesNotOverflow() {
+        assertDelaysWithin(new RetryPolicy(100, 500, 8000), 64, 8000);
+    }
+
+    @Test
+    public void retryableStatuses() {
+        for (int code : new int[] { 408, 429, 502, 503, 504 }) {
+            assertTrue(String.valueOf(code), RetryPolicy.isRetryableStatus(code));
+        }
+        for (int code : new int[] { 200, 400, 401, 403, 404, 409, 500, 501 }) {
+            assertFalse(String.valueOf(code), RetryPolicy.isRetryableStatus(code));
+        }
+    }
+
+    private static void assertDelaysWithin(RetryPolicy policy, int attempt, long cap) {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.getDelayMs(attempt);
+            assertTrue("attempt " + attempt + ": " + delay, delay >= 0 && delay <= cap);
+        }
+    }
+}
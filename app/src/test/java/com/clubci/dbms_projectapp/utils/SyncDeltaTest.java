@@ -0,0 +1,77 @@
+package com.clubci.dbms_projectapp.utils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncDeltaTest {
+
+    @Test
+    public void decodesChangesAndTombstones() throws IOException {
+        SyncDelta<String> delta = decode("{\"watermark\": \"1718031234567\", \"full\": false,"
+                + " \"changes\": [\"a\", \"b\"], \"deleted\": [\"c\"]}");
+
+        assertEquals("1718031234567", delta.getWatermark());
+        assertFalse(delta.isFull());
+        assertEquals(Arrays.asList("a", "b"), delta.getChanges());
+        assertEquals(Collections.singletonList("c"), delta.getDeletedIds());
+    }
+
+    @Test
+    public void numericWatermarkIsKeptAsText() throws IOException {
+        SyncDelta<String> delta = decode("{\"watermark\": 42, \"full\": true, \"changes\": []}");
+
+        assertEquals("42", delta.getWatermark());
+        assertTrue(delta.isFull());
+        assertTrue(delta.getChanges().isEmpty());
+        assertTrue(delta.getDeletedIds().isEmpty());
+    }
+
+    @Test
+    public void nullsAndUnknownFieldsAreSkipped() throws IOException {
+        SyncDelta<String> delta = decode("{\"server\": {\"v\": 2}, \"watermark\": \"w\", \"full\": null,"
+                + " \"changes\": null, \"deleted\": [\"x\", null]}");
+
+        assertFalse(delta.isFull());
+        assertTrue(delta.getChanges().isEmpty());
+        assertEquals(Collections.singletonList("x"), delta.getDeletedIds());
+    }
+
+    @Test
+    public void missingWatermarkIsParseError() {
+        IOException e = assertThrows(ResponseParseException.class,
+                () -> decode("{\"full\": true, \"changes\": [\"a\"]}"));
+
+        assertEquals("Sync response without a watermark", e.getMessage());
+    }
+
+    @Test
+    public void nullWatermarkIsParseError() {
+        assertThrows(ResponseParseException.class, () -> decode("{\"watermark\": null, \"changes\": []}"));
+    }
+
+    @Test
+    public void listsAreReadOnly() throws IOException {
+        SyncDelta<String> delta = decode("{\"watermark\": \"w\", \"changes\": [\"a\"], \"deleted\": [\"b\"]}");
+
+        assertThrows(UnsupportedOperationException.class, () -> delta.getChanges().add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> delta.getDeletedIds().clear());
+    }
+
+    private static SyncDelta<String> decode(String body) throws IOException {
+        return JsonStreamDecoder.readValue(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                reader -> SyncDelta.fromJsonReader(reader, JsonStreamDecoder::nextStringOrNull));
+    }
+}